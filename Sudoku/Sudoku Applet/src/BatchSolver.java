@@ -0,0 +1,191 @@
+/**
+ *  BatchSolver is a headless runner that solves a file of
+ *     puzzles, one 81 character line each, and writes the
+ *     solutions to another file in the same order
+ *
+ *  Usage: java BatchSolver input output [threads] [engine]
+ *
+ *  Spots may be given as 1-9, anything else is an open spot.
+ *     Puzzles that cannot be solved are written back unchanged.
+ *     A line of any other length than 81, not counting \r, is
+ *     malformed: it is counted and written back like an unsolvable
+ *     puzzle, so the output keeps one line per input line. Blank
+ *     lines hold no puzzle and are skipped.
+ */
+
+// Necessary imports
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayDeque;
+import java.util.concurrent.*;
+
+public class BatchSolver {
+
+    // Tuning constants
+    private static final int CHUNK = 4096;                // Puzzles handed to a worker at once
+    private static final long WINDOW = 64L << 20;         // Bytes of the input mapped at once
+
+    // Instance variables
+    private SolverEngine engine;          // Kind of solver used for every puzzle
+    private int threads;                  // Number of worker threads
+    private long puzzles;                 // Number of puzzles read
+    private long unsolved;                // Number of puzzles with no solution
+    private long malformed;               // Number of lines not 81 spots long
+
+    // BatchSolver constructor
+    public BatchSolver(SolverEngine engine, int threads) {
+        this.engine = engine;
+        this.threads = threads;
+    }
+
+    // Accessor methods
+    public long getPuzzles() { return puzzles; }
+    public long getUnsolved() { return unsolved; }
+    public long getMalformed() { return malformed; }
+
+    // Runs the batch from the command line
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: java BatchSolver input output [threads] [engine]");
+            System.exit(1);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        SolverEngine engine = args.length > 3 ? SolverEngine.forName(args[3]) : SolverEngine.DLX;
+
+        BatchSolver batch = new BatchSolver(engine, threads);
+        long start = System.nanoTime();
+        batch.run(Paths.get(args[0]), Paths.get(args[1]));
+        double secs = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Solved %d puzzles (%d unsolvable, %d malformed) in %.3f s, %.0f puzzles/sec%n",
+                batch.getPuzzles(), batch.getUnsolved(), batch.getMalformed(), secs, batch.getPuzzles() / secs);
+        System.out.println("Totals: " + SolverStats.totals());
+    }
+
+    // Solves every puzzle in the input file and writes the solutions to the output file
+    public void run(Path in, Path out) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<Solved>> pending = new ArrayDeque<>();
+        puzzles = 0;
+        unsolved = 0;
+        malformed = 0;
+
+        try (FileChannel ch = FileChannel.open(in, StandardOpenOption.READ);
+             OutputStream os = new BufferedOutputStream(Files.newOutputStream(out), 1 << 16)) {
+
+            byte[] chunk = new byte[CHUNK * 81];
+            boolean[] bad = new boolean[CHUNK];
+            int count = 0, length = 0;
+            long size = ch.size();
+
+            // parse the file byte by byte straight into the chunk, carrying
+            //   a partly read line from one mapped window to the next; the
+            //   whole length of a line is counted but only 81 spots kept
+            for (long pos = 0; pos < size; pos += WINDOW) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW, size - pos));
+                while (buf.hasRemaining()) {
+                    byte b = buf.get();
+                    if (b == '\n') {
+                        if (length > 0) {
+                            endLine(chunk, bad, count++, length);
+                            length = 0;
+                        }
+                        if (count == CHUNK) {
+                            submit(pool, pending, chunk, bad, count, os);
+                            chunk = new byte[CHUNK * 81];
+                            bad = new boolean[CHUNK];
+                            count = 0;
+                        }
+                    } else if (b != '\r') {
+                        if (length < 81)
+                            chunk[count * 81 + length] = (byte) (b >= '1' && b <= '9' ? b - '0' : 0);
+                        length++;
+                    }
+                }
+            }
+            if (length > 0)
+                endLine(chunk, bad, count++, length);
+            if (count > 0)
+                submit(pool, pending, chunk, bad, count, os);
+
+            while (!pending.isEmpty())
+                write(pending.poll(), os);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Finishes the puzzle at a place in the chunk once its line is
+    //   read, marking it malformed unless the line had 81 spots
+    private static void endLine(byte[] chunk, boolean[] bad, int p, int length) {
+        for (int i = length; i < 81; i++)
+            chunk[p * 81 + i] = 0;
+        bad[p] = length != 81;
+    }
+
+    // Hands a chunk to the pool, first writing finished chunks
+    //   so no more than two per thread are held at once
+    private void submit(ExecutorService pool, ArrayDeque<Future<Solved>> pending, byte[] chunk,
+                        boolean[] bad, int count, OutputStream os) throws IOException, InterruptedException {
+        while (pending.size() >= threads * 2)
+            write(pending.poll(), os);
+        puzzles += count;
+        pending.add(pool.submit(() -> solveChunk(chunk, bad, count)));
+    }
+
+    // Waits for a chunk to finish and writes its solutions
+    private void write(Future<Solved> f, OutputStream os) throws IOException, InterruptedException {
+        try {
+            Solved res = f.get();
+            os.write(res.lines);
+            unsolved += res.failed;
+            malformed += res.malformed;
+        } catch (ExecutionException e) {
+            throw new IOException("Worker failed", e.getCause());
+        }
+    }
+
+    // Solves a chunk of puzzles into their solution lines, writing
+    //   malformed ones back as read without solving them
+    private Solved solveChunk(byte[] chunk, boolean[] bad, int count) {
+        Solved res = new Solved(new byte[count * 82]);
+        int[][] board = new int[9][9];
+
+        for (int p = 0; p < count; p++) {
+            for (int i = 0; i < 81; i++)
+                board[i / 9][i % 9] = chunk[p * 81 + i];
+
+            SudokuSolver solver = null;
+            if (!bad[p]) {
+                solver = engine.localSolver(board);
+                solver.solve();
+            }
+            if (solver != null && solver.isSolved()) {
+                for (int i = 0; i < 81; i++)
+                    res.lines[p * 82 + i] = (byte) ('0' + board[i / 9][i % 9]);
+            } else {
+                for (int i = 0; i < 81; i++)
+                    res.lines[p * 82 + i] = (byte) (chunk[p * 81 + i] == 0 ? '.' : '0' + chunk[p * 81 + i]);
+                if (bad[p])
+                    res.malformed++;
+                else
+                    res.failed++;
+            }
+            res.lines[p * 82 + 81] = '\n';
+        }
+        return res;
+    }
+
+    // Solution lines of a chunk and how many of its puzzles had no
+    //   solution or were malformed
+    private static class Solved {
+        private byte[] lines;
+        private int failed;
+        private int malformed;
+
+        private Solved(byte[] lines) { this.lines = lines; }
+    }
+
+}
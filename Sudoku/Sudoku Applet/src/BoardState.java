@@ -0,0 +1,85 @@
+/**
+ *  BoardState tracks which numbers are used in each row,
+ *     column and block of a board so a move can be checked
+ *     and applied in constant time without allocating
+ */
+
+public class BoardState {
+
+    // Instance variables
+    private Geometry geo;           // Shape of the board
+    private int[][] board;          // Matrix of numbers on the board, updated in place
+    private long[] rowMask;         // Numbers placed in each row
+    private long[] colMask;         // Numbers placed in each column
+    private long[] blockMask;       // Numbers placed in each block
+
+    // BoardState constructor
+    public BoardState(int[][] b) {
+        load(b);
+    }
+
+    // Accessor methods
+    public int[][] getBoard() { return board; }
+    public Geometry getGeometry() { return geo; }
+    public int get(int r, int c) { return board[r][c]; }
+
+    // Starts tracking a new board, rebuilding the masks from it
+    public void load(int[][] b) {
+        board = b;
+        if (geo == null || geo.getSize() != b.length) {
+            geo = Geometry.of(b);
+            rowMask = new long[geo.getSize()];
+            colMask = new long[geo.getSize()];
+            blockMask = new long[geo.getSize()];
+        }
+        for (int i = 0; i < geo.getSize(); i++) {
+            rowMask[i] = 0;
+            colMask[i] = 0;
+            blockMask[i] = 0;
+        }
+        for (int r = 0; r < geo.getSize(); r++)
+            for (int c = 0; c < geo.getSize(); c++)
+                if (board[r][c] != 0)
+                    mark(r, c, Geometry.bit(board[r][c]));
+    }
+
+    // Returns the mask of numbers that may legally go in a spot,
+    //   ignoring whatever number is there now
+    public long legal(int r, int c) {
+        long used = rowMask[r] | colMask[c] | blockMask[geo.getBlock(r, c)];
+        if (board[r][c] != 0)
+            used &= ~Geometry.bit(board[r][c]);
+        return geo.getAll() & ~used;
+    }
+
+    // Indicates whether a number may legally go in a spot
+    public boolean isLegal(int r, int c, int num) {
+        return num >= 1 && num <= geo.getSize() && (legal(r, c) & Geometry.bit(num)) != 0;
+    }
+
+    // Puts a number in a spot, replacing whatever was there
+    public void set(int r, int c, int num) {
+        clear(r, c);
+        board[r][c] = num;
+        if (num != 0)
+            mark(r, c, Geometry.bit(num));
+    }
+
+    // Empties a spot
+    public void clear(int r, int c) {
+        if (board[r][c] == 0) return;
+        long b = ~Geometry.bit(board[r][c]);
+        rowMask[r] &= b;
+        colMask[c] &= b;
+        blockMask[geo.getBlock(r, c)] &= b;
+        board[r][c] = 0;
+    }
+
+    // Records a number as used in the units of a spot
+    private void mark(int r, int c, long b) {
+        rowMask[r] |= b;
+        colMask[c] |= b;
+        blockMask[geo.getBlock(r, c)] |= b;
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+ *  CachedSolver puts a SolutionCache in front of Solver, looking
+ *     a 9x9 board up first as it is and then by its canonical form,
+ *     and searching only when no equivalent board has been solved
+ *
+ *  Every key in the cache is a board and its value a solution of
+ *     that board, so the board itself and its form can share one
+ *     cache. Other sizes are passed straight to Solver. A miss is
+ *     recorded by the Solver that searches; a hit is recorded here
+ *     as a CACHED solve flagged as a cache hit.
+ *
+ *  Working out the form of a sparse board costs far more than
+ *     solving it, so boards with fewer than MIN_CLUES numbers, and
+ *     boards whose form is not found within FORM_BUDGET rows, are
+ *     solved directly without touching the cache.
+ */
+
+public class CachedSolver implements SudokuSolver {
+
+    // Fewest numbers a board needs before its form is worked out
+    static final int MIN_CLUES = 17;
+
+    // Most rows tried when working out a form; puzzles with 17 or more
+    //   numbers need under 10000, an empty board about 10 million
+    static final long FORM_BUDGET = 20000;
+
+    // Instance variables
+    private int[][] board;                // Matrix of numbers on the board
+    private SolutionCache cache;          // Solutions of forms already solved
+    private SolverStats stats;            // Work counted during the last search
+    private boolean solved;               // Indicator variable for whether or not board is solved
+
+    // CachedSolver constructor using the shared cache
+    public CachedSolver(int[][] b) {
+        this(b, SolutionCache.shared());
+    }
+
+    // CachedSolver constructor using the given cache
+    public CachedSolver(int[][] b, SolutionCache cache) {
+        board = b;
+        this.cache = cache;
+        stats = new SolverStats();
+        solved = false;
+    }
+
+    // Standard accessor methods
+    public int[][] getBoard() { return board; }
+    public boolean isSolved() { return solved; }
+    public SolverStats getStats() { return stats; }
+
+    // Solves the current board from the cache if it, or a board
+    //   equivalent to it, was solved before, otherwise solves its
+    //   form and caches it
+    public int[][] solve() {
+        if (solved) return board;
+        stats.reset();
+        if (board.length != 9 || clues(board) < MIN_CLUES)
+            return solveDirectly();
+
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean searched = false;
+
+        // the same board again is found without working out its form
+        String key = keyOf(board);
+        int[] sol = cache.get(key);
+        if (sol == null) {
+            CanonicalForm form = new CanonicalForm(board, FORM_BUDGET);
+            if (!form.isComplete())
+                return solveDirectly();
+            String formKey = form.getKey();
+            int[] formSol = cache.get(formKey);
+            if (formSol == null) {
+                int[][] b = form.getBoard();
+                Solver s = new Solver(b);
+                s.solve();
+                stats = s.getStats();
+                searched = true;
+                formSol = s.isSolved() ? flatten(b) : SolutionCache.NONE;
+                cache.put(formKey, formSol);
+            }
+
+            sol = SolutionCache.NONE;
+            if (formSol != SolutionCache.NONE) {
+                int[][] b = new int[9][9];
+                form.toOriginal(formSol, b);
+                sol = flatten(b);
+            }
+            cache.put(key, sol);
+        }
+
+        if (sol != SolutionCache.NONE) {
+            for (int i = 0; i < 81; i++)
+                board[i / 9][i % 9] = sol[i];
+            solved = true;
+        }
+        if (!searched) {
+            stats.nanos = System.nanoTime() - start;
+            stats.cacheHit = true;
+            stats.record("CACHED", solved, event);
+        }
+        return board;
+    }
+
+    // Solves the board with Solver, leaving the cache alone
+    private int[][] solveDirectly() {
+        Solver s = new Solver(board);
+        s.solve();
+        stats = s.getStats();
+        solved = s.isSolved();
+        return board;
+    }
+
+    // Returns the number of filled spots on a board
+    private static int clues(int[][] b) {
+        int n = 0;
+        for (int[] row : b)
+            for (int num : row)
+                if (num != 0)
+                    n++;
+        return n;
+    }
+
+    // Returns a board as a string of 81 digits, 0 for open spots
+    static String keyOf(int[][] b) {
+        char[] key = new char[81];
+        for (int i = 0; i < 81; i++)
+            key[i] = (char) ('0' + b[i / 9][i % 9]);
+        return new String(key);
+    }
+
+    // Returns a board as one row major array
+    private static int[] flatten(int[][] b) {
+        int[] flat = new int[81];
+        for (int i = 0; i < 81; i++)
+            flat[i] = b[i / 9][i % 9];
+        return flat;
+    }
+
+}
@@ -0,0 +1,312 @@
+/**
+ *  CanonicalForm finds the one representative of a 9x9 board
+ *     among every board it can be turned into by the moves that
+ *     keep a Sudoku valid: relabeling the numbers, reordering the
+ *     rows within a band, the bands, the columns within a stack
+ *     and the stacks, and transposing
+ *
+ *  The representative is the smallest board, read row by row
+ *     with 0 for open spots, after numbering the numbers 1, 2, ...
+ *     in the order they are first read. Equivalent boards get the
+ *     same form, and the transform that produced it is kept so a
+ *     solution of the form can be turned back into a solution of
+ *     the original board.
+ *
+ *  The first row of the form depends only on where its open spots
+ *     are, so only the column orders that give the best such row
+ *     are searched, and the rows below are chosen one at a time,
+ *     cutting off any order that falls behind the best form found.
+ *     Sparse boards leave most orders tied and the search grows
+ *     with them, so it can be given a budget of rows tried; a search
+ *     that runs out of it is incomplete and has no form.
+ */
+
+// Necessary imports
+import java.util.Arrays;
+
+public class CanonicalForm {
+
+    // Orders of three things
+    private static final int[][] PERM3 = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+
+    // Every column order that keeps the stacks whole, with the order
+    //   of the stacks and the order within the stack at each place
+    private static final int[][] COLS = new int[1296][9];
+    private static final int[] STACKS = new int[1296];
+    private static final int[][] WITHIN = new int[1296][3];
+
+    static {
+        int k = 0;
+        for (int s = 0; s < 6; s++)
+            for (int w = 0; w < 216; w++, k++) {
+                STACKS[k] = s;
+                WITHIN[k] = new int[] {w / 36, w / 6 % 6, w % 6};
+                for (int b = 0; b < 3; b++)
+                    for (int j = 0; j < 3; j++)
+                        COLS[k][b * 3 + j] = PERM3[s][b] * 3 + PERM3[WITHIN[k][b]][j];
+            }
+    }
+
+    // Instance variables
+    private int[] canon;                      // Best form found, row major
+    private boolean transposed;               // Whether the form transposes the board
+    private int[] rows = new int[9];          // Row of the board read for each row of the form
+    private int[] cols = new int[9];          // Column of the board read for each column of the form
+    private int[] labels = new int[10];       // Number in the form for each number on the board
+
+    // Search state
+    private int[] grid = new int[81];         // Board being searched, transposed or not
+    private boolean curTransposed;            // Whether grid is transposed
+    private int[] curCols;                    // Column order being searched
+    private int[] order = new int[9];         // Rows picked so far
+    private boolean[] used = new boolean[9];  // Whether each row has been picked
+    private int[] out = new int[81];          // Form being built
+    private int[] lab = new int[10 * 10];     // Numbering in force before each row
+    private int[] next = new int[10];         // Next free number before each row
+    private int[] cands = new int[9 * 9];     // Candidate rows, by depth
+    private int[] candRow = new int[81 * 9];  // Row each candidate would add, by depth
+    private int[] candLab = new int[81 * 10]; // Numbering after each candidate, by depth
+    private int[] candNext = new int[81];     // Next free number after each candidate, by depth
+    private int found;                        // Number of times the best form has improved
+    private long nodes;                       // Rows chosen so far
+    private long budget;                      // Most rows the search may choose
+
+    // CanonicalForm constructor, searching for the form of a 9x9 board
+    public CanonicalForm(int[][] board) {
+        this(board, Long.MAX_VALUE);
+    }
+
+    // CanonicalForm constructor, searching for the form of a 9x9 board
+    //   until budget rows have been tried
+    public CanonicalForm(int[][] board, long budget) {
+        if (board.length != 9)
+            throw new IllegalArgumentException("Only 9x9 boards have a canonical form");
+        this.budget = budget;
+
+        // the best first row has the most open spots first: stacks
+        //   with more open spots first, open spots first in each stack
+        int[][][] tri = new int[2][9 * 3][6];
+        int best = -1;
+        for (int t = 0; t < 2; t++) {
+            load(board, t == 1);
+            for (int r = 0; r < 9; r++) {
+                for (int s = 0; s < 3; s++)
+                    for (int w = 0; w < 6; w++)
+                        for (int j = 0; j < 3; j++)
+                            if (grid[r * 9 + s * 3 + PERM3[w][j]] == 0)
+                                tri[t][r * 3 + s][w] |= 4 >> j;
+                best = Math.max(best, bestFirstRow(r));
+            }
+        }
+
+        for (int t = 0; t < 2; t++) {
+            load(board, t == 1);
+            for (int r = 0; r < 9; r++) {
+                if (bestFirstRow(r) != best)
+                    continue;
+                for (int k = 0; k < COLS.length && nodes <= budget; k++) {
+                    int[] w = WITHIN[k], s = PERM3[STACKS[k]];
+                    int value = tri[t][r * 3 + s[0]][w[0]] << 6 | tri[t][r * 3 + s[1]][w[1]] << 3 | tri[t][r * 3 + s[2]][w[2]];
+                    if (value == best)
+                        searchFrom(r, COLS[k]);
+                }
+            }
+        }
+    }
+
+    // Accessor methods
+    public boolean isTransposed() { return transposed; }
+    public long getNodes() { return nodes; }
+
+    // Returns whether the search finished within its budget; only then
+    //   are the key, board and transform of the form meaningful
+    public boolean isComplete() { return nodes <= budget; }
+
+    // Returns the form as a string of 81 digits, 0 for open spots
+    public String getKey() {
+        char[] key = new char[81];
+        for (int i = 0; i < 81; i++)
+            key[i] = (char) ('0' + canon[i]);
+        return new String(key);
+    }
+
+    // Returns the form as a new board
+    public int[][] getBoard() {
+        int[][] b = new int[9][9];
+        for (int i = 0; i < 81; i++)
+            b[i / 9][i % 9] = canon[i];
+        return b;
+    }
+
+    // Writes a solution of the form, row major, back onto the original
+    //   board as a solution of it
+    public void toOriginal(int[] solution, int[][] board) {
+        // numbers missing from the board take the unused labels in order
+        int[] number = new int[10];
+        boolean[] taken = new boolean[10];
+        for (int d = 1; d <= 9; d++)
+            if (labels[d] != 0) {
+                number[labels[d]] = d;
+                taken[d] = true;
+            }
+        for (int l = 1, d = 1; l <= 9; l++)
+            if (number[l] == 0) {
+                while (taken[d])
+                    d++;
+                number[l] = d;
+                taken[d] = true;
+            }
+
+        for (int rr = 0; rr < 9; rr++)
+            for (int cc = 0; cc < 9; cc++) {
+                int num = number[solution[rr * 9 + cc]];
+                if (transposed)
+                    board[cols[cc]][rows[rr]] = num;
+                else
+                    board[rows[rr]][cols[cc]] = num;
+            }
+    }
+
+    // Copies the board into grid, transposed if asked
+    private void load(int[][] board, boolean transpose) {
+        curTransposed = transpose;
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                grid[r * 9 + c] = transpose ? board[c][r] : board[r][c];
+    }
+
+    // Returns the open spots of the best first row a row of grid can
+    //   give, as bits from the first column down
+    private int bestFirstRow(int r) {
+        int[] open = new int[3];
+        for (int c = 0; c < 9; c++)
+            if (grid[r * 9 + c] == 0)
+                open[c / 3]++;
+        Arrays.sort(open);
+        int value = 0;
+        for (int s = 2; s >= 0; s--)
+            value = value << 3 | (7 << (3 - open[s]) & 7);
+        return value;
+    }
+
+    // Searches the forms that start with row r under a column order
+    private void searchFrom(int r, int[] c) {
+        curCols = c;
+        for (int i = 0; i < 9; i++)
+            used[i] = false;
+        for (int d = 0; d < 10; d++)
+            lab[d] = 0;
+        next[0] = 1;
+
+        cands[0] = r;
+        readRow(0, 0);
+        if (canon != null && compare(0, 0) > 0)
+            return;
+        pick(0, 0, canon == null || compare(0, 0) < 0);
+    }
+
+    // Takes a candidate as the row at a depth and searches on from there
+    private void pick(int d, int k, boolean less) {
+        int r = cands[d * 9 + k];
+        order[d] = r;
+        used[r] = true;
+        System.arraycopy(candRow, (d * 9 + k) * 9, out, d * 9, 9);
+        System.arraycopy(candLab, (d * 9 + k) * 10, lab, (d + 1) * 10, 10);
+        next[d + 1] = candNext[d * 9 + k];
+        search(d + 1, less);
+        used[r] = false;
+    }
+
+    // Chooses the row at a depth, trying every candidate that gives the
+    //   smallest row; less tells whether the form is already below the best
+    private void search(int d, boolean less) {
+        if (++nodes > budget)
+            return;
+        if (d == 9) {
+            if (less)
+                record();
+            return;
+        }
+
+        // the first row of a band may come from any band not yet used,
+        //   the others from what is left of the current band
+        int n = 0;
+        if (d % 3 == 0) {
+            for (int b = 0; b < 3; b++)
+                if (!used[b * 3] && !used[b * 3 + 1] && !used[b * 3 + 2])
+                    for (int i = 0; i < 3; i++)
+                        cands[d * 9 + n++] = b * 3 + i;
+        } else {
+            int band = order[d - d % 3] / 3;
+            for (int i = 0; i < 3; i++)
+                if (!used[band * 3 + i])
+                    cands[d * 9 + n++] = band * 3 + i;
+        }
+
+        int min = 0;
+        for (int k = 0; k < n; k++) {
+            readRow(d, k);
+            if (k > 0 && compareRows(d * 9 + k, d * 9 + min) < 0)
+                min = k;
+        }
+        if (!less) {
+            int cmp = compare(d * 9 + min, d);
+            if (cmp > 0)
+                return;
+            less = cmp < 0;
+        }
+
+        for (int k = 0; k < n; k++)
+            if (k == min || compareRows(d * 9 + k, d * 9 + min) == 0) {
+                int before = found;
+                pick(d, k, less);
+                // a better form found below shares every row up to this one
+                if (found != before)
+                    less = false;
+            }
+    }
+
+    // Reads a candidate row of grid under the column order, numbering
+    //   any number not seen before
+    private void readRow(int d, int k) {
+        int ck = d * 9 + k, r = cands[ck] * 9, row = ck * 9, l = ck * 10;
+        System.arraycopy(lab, d * 10, candLab, l, 10);
+        int n = next[d];
+        for (int c = 0; c < 9; c++) {
+            int v = grid[r + curCols[c]];
+            if (v != 0 && candLab[l + v] == 0)
+                candLab[l + v] = n++;
+            candRow[row + c] = v == 0 ? 0 : candLab[l + v];
+        }
+        candNext[ck] = n;
+    }
+
+    // Compares a candidate's row with the row at a depth of the best form
+    private int compare(int ck, int d) {
+        for (int c = 0; c < 9; c++)
+            if (candRow[ck * 9 + c] != canon[d * 9 + c])
+                return candRow[ck * 9 + c] - canon[d * 9 + c];
+        return 0;
+    }
+
+    // Compares the rows of two candidates
+    private int compareRows(int a, int b) {
+        for (int c = 0; c < 9; c++)
+            if (candRow[a * 9 + c] != candRow[b * 9 + c])
+                return candRow[a * 9 + c] - candRow[b * 9 + c];
+        return 0;
+    }
+
+    // Keeps the form just built as the best one
+    private void record() {
+        if (canon == null)
+            canon = new int[81];
+        System.arraycopy(out, 0, canon, 0, 81);
+        transposed = curTransposed;
+        System.arraycopy(order, 0, rows, 0, 9);
+        System.arraycopy(curCols, 0, cols, 0, 9);
+        System.arraycopy(lab, 90, labels, 0, 10);
+        found++;
+    }
+
+}
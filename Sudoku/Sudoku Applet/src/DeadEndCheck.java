@@ -0,0 +1,84 @@
+/**
+ *  DeadEndCheck looks for a dead end on a player's board after
+ *     each move, by propagating the numbers placed so far until
+ *     nothing more follows from them
+ *
+ *  A dead end is a spot left with no number that fits, or a number
+ *     with no place left in some row, column or block. Propagation
+ *     stops at its fixpoint, which is reached after at most one
+ *     change per option of each spot, so a check costs a few
+ *     microseconds on a 9x9 board and stays well inside the time
+ *     for handling a key. Boards that are stuck only several
+ *     guesses later are not caught.
+ */
+
+public class DeadEndCheck {
+
+    // Instance variables
+    private long[] opt;           // Candidate board propagated by the last check
+    private boolean deadEnd;      // Whether the last check found a dead end
+    private int spot;             // Spot left with no options, or -1
+    private int unit;             // Unit left without a place for some number, or -1
+    private long missing;         // Numbers with no place in that unit
+    private int moveRow, moveCol; // Move that led to the dead end, or -1
+
+    // DeadEndCheck constructor
+    public DeadEndCheck() {
+        clear();
+    }
+
+    // Accessor methods
+    public boolean isDeadEnd() { return deadEnd; }
+    public int getSpot() { return spot; }
+    public int getUnit() { return unit; }
+    public long getMissing() { return missing; }
+    public int getMoveRow() { return moveRow; }
+    public int getMoveCol() { return moveCol; }
+
+    // Forgets the last dead end found
+    public void clear() {
+        deadEnd = false;
+        spot = unit = moveRow = moveCol = -1;
+        missing = 0;
+    }
+
+    // Checks the board after a move at the given spot, returning whether
+    //   it has reached a dead end; a dead end already found stays blamed
+    //   on the move that first led to it
+    public boolean check(int[][] board, int row, int col) {
+        Geometry geo = Geometry.of(board);
+        if (opt == null || opt.length != geo.getCells())
+            opt = new long[geo.getCells()];
+        for (int i = 0; i < opt.length; i++) {
+            int num = board[geo.row[i]][geo.col[i]];
+            opt[i] = num == 0 ? geo.getAll() : Geometry.bit(num);
+        }
+
+        Propagator prop = geo.propagator();
+        if (prop.propagate(opt)) {
+            clear();
+            return false;
+        }
+        if (!deadEnd) {
+            moveRow = row;
+            moveCol = col;
+        }
+        deadEnd = true;
+        spot = prop.getFailedSpot();
+        unit = prop.getFailedUnit();
+        missing = prop.getMissing();
+        return true;
+    }
+
+    // Describes the dead end for the player, counting from 1
+    public String describe(Geometry geo) {
+        if (!deadEnd)
+            return "";
+        if (spot >= 0)
+            return "Dead end: no number fits at row " + (geo.row[spot] + 1) + ", column " + (geo.col[spot] + 1);
+        String[] kinds = {"row", "column", "block"};
+        return "Dead end: " + Geometry.digit(missing) + " has no place left in "
+                + kinds[unit / geo.getSize()] + " " + (unit % geo.getSize() + 1);
+    }
+
+}
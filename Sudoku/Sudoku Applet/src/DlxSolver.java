@@ -0,0 +1,217 @@
+/**
+ *  DlxSolver solves a board as an exact cover problem using
+ *     Dancing Links, always branching on the constraint with
+ *     the fewest remaining choices
+ *
+ *  On a 9x9 board there are 324 constraint columns (each spot
+ *     filled, and each number once per row, column and block) and
+ *     729 rows (each number in each spot), each row covering exactly
+ *     4 columns. Larger boards scale the same way with their size.
+ */
+
+public class DlxSolver implements SudokuSolver {
+
+    // Index of the root header
+    private static final int ROOT = 0;
+
+    // Instance variables
+    private int[][] board;                // Matrix of numbers on the board
+    private int size;                     // Spots along each side of the board
+    private int box;                      // Spots along each side of a block
+    private int columns;                  // Constraint columns
+    private int rows;                     // Candidate rows, one per number per spot
+    private int[] left;                   // Left link of each node
+    private int[] right;                  // Right link of each node
+    private int[] up;                     // Up link of each node
+    private int[] down;                   // Down link of each node
+    private int[] column;                 // Column header of each node
+    private int[] rowOf;                  // Candidate row of each node
+    private int[] count;                  // Number of nodes left in each column
+    private int[] firstNode;              // First node of each candidate row
+    private int[] chosen;                 // Candidate rows picked by the search
+    private boolean solved;               // Indicator variable for whether or not board is solved
+    private SolverStats stats = new SolverStats();  // Work counted during the last solve
+
+    // DlxSolver constructor
+    public DlxSolver(int[][] b) {
+        board = b;
+        Geometry geo = Geometry.of(b);
+        size = geo.getSize();
+        box = geo.getBox();
+        columns = 4 * geo.getCells();
+        rows = size * geo.getCells();
+
+        int nodes = 1 + columns + rows * 4;
+        left = new int[nodes];
+        right = new int[nodes];
+        up = new int[nodes];
+        down = new int[nodes];
+        column = new int[nodes];
+        rowOf = new int[nodes];
+        count = new int[1 + columns];
+        firstNode = new int[rows];
+        chosen = new int[geo.getCells()];
+        buildMatrix();
+        solved = false;
+    }
+
+    // Standard accessor methods
+    public int[][] getBoard() { return board; }
+    public boolean isSolved() { return solved; }
+    public SolverStats getStats() { return stats; }
+
+    // Links the column headers and the four nodes of every candidate row
+    private void buildMatrix() {
+        for (int h = 0; h <= columns; h++) {
+            left[h] = h == 0 ? columns : h - 1;
+            right[h] = h == columns ? 0 : h + 1;
+            up[h] = h;
+            down[h] = h;
+            column[h] = h;
+            count[h] = 0;
+        }
+
+        int cells = size * size, node = columns + 1;
+        int[] cols = new int[4];
+        for (int row = 0; row < rows; row++) {
+            int cell = row / size, r = cell / size, c = cell % size, d = row % size;
+            cols[0] = cell;
+            cols[1] = cells + r * size + d;
+            cols[2] = 2 * cells + c * size + d;
+            cols[3] = 3 * cells + ((r / box) * box + c / box) * size + d;
+            firstNode[row] = node;
+            for (int k = 0; k < 4; k++) {
+                int h = cols[k] + 1;
+                column[node] = h;
+                rowOf[node] = row;
+                up[node] = up[h];
+                down[node] = h;
+                down[up[h]] = node;
+                up[h] = node;
+                count[h]++;
+                left[node] = k == 0 ? node + 3 : node - 1;
+                right[node] = k == 3 ? node - 3 : node + 1;
+                node++;
+            }
+        }
+    }
+
+    // Removes a column and every row that uses it from the matrix
+    private void cover(int h) {
+        right[left[h]] = right[h];
+        left[right[h]] = left[h];
+        for (int i = down[h]; i != h; i = down[i])
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                count[column[j]]--;
+            }
+    }
+
+    // Restores a column removed by cover, in reverse order
+    private void uncover(int h) {
+        for (int i = up[h]; i != h; i = up[i])
+            for (int j = left[i]; j != i; j = left[j]) {
+                count[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        right[left[h]] = h;
+        left[right[h]] = h;
+    }
+
+    // Indicates whether a column is still in the header list
+    private boolean isActive(int h) {
+        return right[left[h]] == h;
+    }
+
+    // Solves the current board and returns it
+    public int[][] solve() {
+        if (solved) return board;
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        long start = System.nanoTime();
+        stats.reset();
+
+        int given = coverGiven();
+        if (given >= 0 && search(given, given)) {
+            for (int k = given; k < chosen.length; k++) {
+                int row = chosen[k], cell = row / size;
+                board[cell / size][cell % size] = row % size + 1;
+            }
+            solved = true;
+        }
+        if (given >= 0)
+            uncoverGiven(given);
+
+        stats.nanos = System.nanoTime() - start;
+        stats.record("DLX", solved, event);
+        return board;
+    }
+
+    // Covers the columns of every number already on the board, keeping
+    //   their rows in chosen, and returns how many there are, or -1 with
+    //   nothing left covered if two of them clash
+    private int coverGiven() {
+        int given = 0;
+        for (int r = 0; r < size; r++)
+            for (int c = 0; c < size; c++)
+                if (board[r][c] != 0) {
+                    int row = (r * size + c) * size + board[r][c] - 1;
+                    for (int j = firstNode[row], k = 0; k < 4; j = right[j], k++)
+                        if (!isActive(column[j])) {
+                            uncoverGiven(given);
+                            return -1;
+                        }
+                    for (int j = firstNode[row], k = 0; k < 4; j = right[j], k++)
+                        cover(column[j]);
+                    chosen[given++] = row;
+                }
+        return given;
+    }
+
+    // Restores the columns covered for the first given rows of chosen,
+    //   in reverse order, so the matrix is whole for the next solve
+    private void uncoverGiven(int given) {
+        for (int k = given - 1; k >= 0; k--) {
+            int first = firstNode[chosen[k]];
+            for (int j = left[first], n = 0; n < 4; j = left[j], n++)
+                uncover(column[j]);
+        }
+    }
+
+    // Recursively picks the column with the fewest rows and tries
+    //   each of its rows until every column is covered
+    private boolean search(int depth, int given) {
+        stats.nodes++;
+        stats.reach(depth - given);
+        if (right[ROOT] == ROOT)
+            return true;
+
+        int best = right[ROOT];
+        for (int h = right[best]; h != ROOT && count[best] > 1; h = right[h])
+            if (count[h] < count[best])
+                best = h;
+        if (count[best] == 0)
+            return false;
+
+        cover(best);
+        for (int i = down[best]; i != best; i = down[i]) {
+            chosen[depth] = rowOf[i];
+            stats.guesses++;
+            for (int j = right[i]; j != i; j = right[j])
+                cover(column[j]);
+            boolean found = search(depth + 1, given);
+            for (int j = left[i]; j != i; j = left[j])
+                uncover(column[j]);
+            if (found) {
+                uncover(best);
+                return true;
+            }
+            stats.backtracks++;
+        }
+        uncover(best);
+        return false;
+    }
+
+}
@@ -0,0 +1,221 @@
+/**
+ *  GenerationPipeline makes puzzles in bulk as a chain of stages
+ *     joined by bounded queues: full boards, clue removal checked
+ *     for a unique solution, grading, and writing to a sink such
+ *     as a PuzzleStore
+ *
+ *  Each stage has its own worker threads. A worker whose output
+ *     queue is full blocks until the next stage catches up, so a
+ *     slow stage throttles the ones before it instead of letting
+ *     boards pile up in memory. Every stage handles exactly the
+ *     number of puzzles asked for, so workers stop by claiming
+ *     from a shared count rather than on an end marker.
+ *
+ *  Each stage keeps the time its workers spent working, waiting
+ *     for input and blocked on output, so the stage holding the
+ *     run back is the one that is busy while the others wait.
+ */
+
+// Necessary imports
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class GenerationPipeline {
+
+    // Puzzles each queue holds before its producers block
+    private static final int CAPACITY = 64;
+
+    // Where finished puzzles go, called by one thread at a time
+    public interface Sink {
+        void write(Puzzle p) throws IOException;
+    }
+
+    // Work a stage does on one puzzle; each worker gets its own
+    private interface Step {
+        void apply(Job job) throws IOException;
+    }
+
+    // A puzzle on its way through the stages
+    private static class Job {
+        int[][] board;            // Puzzle, full until clues are removed
+        int[][] solution;         // Full board the puzzle was made from
+        Technique grade;          // Hardest technique needed, or null if not graded
+        long seed;                // Seed the puzzle is made from
+        SplittableRandom rnd;     // Stream seeded with it, handed from stage to stage
+    }
+
+    // Instance variables
+    private List<Stage> stages;   // Stages in the order puzzles pass through them
+    private long nanos;           // Length of the last run
+
+    // GenerationPipeline constructor, with the worker count of each
+    //   stage; writing always has one worker
+    public GenerationPipeline(String difficulty, int box, int fillers, int carvers, int graders, Sink sink) {
+        int size = Geometry.of(box).getSize();
+
+        stages = new ArrayList<>();
+        stages.add(new Stage("fill", fillers, () -> job -> {
+            job.seed = Seeds.next();
+            job.rnd = Seeds.of(job.seed);
+            job.board = new int[size][size];
+            GridShuffler.fill(job.board, job.rnd);
+            job.solution = new int[size][];
+            for (int r = 0; r < size; r++)
+                job.solution[r] = job.board[r].clone();
+        }));
+        stages.add(new Stage("carve", carvers, () -> job -> SudokuGame.removeNumbers(job.board, difficulty, job.rnd)));
+        stages.add(new Stage("grade", graders, () -> {
+            Grader grader = box == 3 ? new Grader() : null;
+            return job -> job.grade = grader == null ? null : grader.grade(job.board);
+        }));
+        stages.add(new Stage("write", 1, () -> job ->
+                sink.write(new Puzzle(job.board, job.solution, difficulty, job.seed, job.grade))));
+    }
+
+    // GenerationPipeline constructor, sizing the stages for the machine
+    public GenerationPipeline(String difficulty, int box, Sink sink) {
+        this(difficulty, box, 1, Runtime.getRuntime().availableProcessors(),
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 4), sink);
+    }
+
+    // Accessor methods
+    public List<Stage> getStages() { return stages; }
+    public long getNanos() { return nanos; }
+
+    // Makes count puzzles, returning when all of them have been written;
+    //   the first failure of any worker stops every stage and is thrown
+    public void run(int count) throws IOException, InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        BlockingQueue<Job> in = null;
+        for (int k = 0; k < stages.size(); k++) {
+            Stage stage = stages.get(k);
+            BlockingQueue<Job> out = k == stages.size() - 1 ? null : new ArrayBlockingQueue<>(CAPACITY);
+            BlockingQueue<Job> from = in;
+            AtomicInteger claimed = new AtomicInteger();
+            stage.reset();
+            for (int w = 0; w < stage.workers; w++) {
+                Thread t = new Thread(() -> {
+                    try {
+                        stage.work(from, out, claimed, count);
+                    } catch (InterruptedException e) {
+                        // another worker failed
+                    } catch (Throwable e) {
+                        if (failure.compareAndSet(null, e))
+                            for (Thread other : threads)
+                                other.interrupt();
+                    }
+                }, "Pipeline-" + stage.name + "-" + w);
+                t.setDaemon(true);
+                threads.add(t);
+            }
+            in = out;
+        }
+
+        long start = System.nanoTime();
+        for (Thread t : threads)
+            t.start();
+        try {
+            for (Thread t : threads)
+                t.join();
+        } catch (InterruptedException e) {
+            for (Thread t : threads)
+                t.interrupt();
+            throw e;
+        }
+        nanos = System.nanoTime() - start;
+
+        Throwable e = failure.get();
+        if (e instanceof IOException)
+            throw (IOException) e;
+        if (e != null)
+            throw new IllegalStateException("Generation failed in " + e.getClass().getSimpleName(), e);
+    }
+
+    // Returns one line of stats for each stage of the last run
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Stage s : stages)
+            sb.append(s.report(nanos)).append('\n');
+        return sb.toString();
+    }
+
+    // One stage of the pipeline with its workers' counters
+    public static class Stage {
+
+        private String name;              // Name the stage is reported under
+        private int workers;              // Threads running the stage
+        private Supplier<Step> steps;     // Makes the work of each worker
+        private LongAdder done;           // Puzzles handled
+        private LongAdder busy;           // Worker time spent working
+        private LongAdder starved;        // Worker time spent waiting for input
+        private LongAdder blocked;        // Worker time spent waiting for room downstream
+
+        private Stage(String name, int workers, Supplier<Step> steps) {
+            if (workers < 1)
+                throw new IllegalArgumentException("Stage " + name + " needs at least one worker");
+            this.name = name;
+            this.workers = workers;
+            this.steps = steps;
+            done = new LongAdder();
+            busy = new LongAdder();
+            starved = new LongAdder();
+            blocked = new LongAdder();
+        }
+
+        // Accessor methods
+        public String getName() { return name; }
+        public int getWorkers() { return workers; }
+        public long getDone() { return done.sum(); }
+        public long getBusyNanos() { return busy.sum(); }
+        public long getStarvedNanos() { return starved.sum(); }
+        public long getBlockedNanos() { return blocked.sum(); }
+
+        // Clears the counters before a run
+        private void reset() {
+            done.reset();
+            busy.reset();
+            starved.reset();
+            blocked.reset();
+        }
+
+        // Handles puzzles until count have been claimed across the stage;
+        //   the first stage starts each one and the last keeps it
+        private void work(BlockingQueue<Job> in, BlockingQueue<Job> out, AtomicInteger claimed, int count)
+                throws IOException, InterruptedException {
+            Step step = steps.get();
+            while (claimed.getAndIncrement() < count) {
+                long t0 = System.nanoTime();
+                Job job = in == null ? new Job() : in.take();
+                long t1 = System.nanoTime();
+                step.apply(job);
+                long t2 = System.nanoTime();
+                if (out != null)
+                    out.put(job);
+                long t3 = System.nanoTime();
+                starved.add(t1 - t0);
+                busy.add(t2 - t1);
+                blocked.add(t3 - t2);
+                done.increment();
+            }
+        }
+
+        // Returns the stage's rate if it never waited, and the share of
+        //   its worker time spent busy, starved and blocked over a run
+        private String report(long nanos) {
+            double total = (double) nanos * workers, n = done.sum();
+            return String.format("%-6s %3d workers %12.0f puzzles/s when busy   busy %5.1f%%  starved %5.1f%%  blocked %5.1f%%",
+                    name, workers, busy.sum() == 0 ? 0 : n * workers * 1e9 / busy.sum(),
+                    100 * busy.sum() / total, 100 * starved.sum() / total, 100 * blocked.sum() / total);
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+/**
+ *  Geometry holds the shape of a Sudoku board with blocks of
+ *     box by box spots, so box 3 is the usual 9x9 board, 4 is
+ *     16x16 and 5 is 25x25
+ *
+ *  Spots are indexed r*size+c. Candidates for a spot are a long
+ *     with bit n-1 set when n may still go there, so boards up
+ *     to 64 numbers fit in one word.
+ *
+ *  Every field is final, so a shape is safely published and
+ *     forCells can look through the shapes without locking.
+ */
+
+public class Geometry {
+
+    // Largest supported block size, so a 64x64 board
+    public static final int MAX_BOX = 8;
+
+    // Whether -Dsudoku.kernel=vector asked for the vectorized kernel
+    private static final boolean USE_VECTOR = "vector".equals(System.getProperty("sudoku.kernel"));
+
+    // Shapes already built, indexed by block size
+    private static final Geometry[] SHAPES = new Geometry[MAX_BOX + 1];
+
+    // Instance variables
+    private final int box;            // Spots along each side of a block
+    private final int size;           // Spots along each side of the board, and numbers used
+    private final int cells;          // Spots on the board
+    private final long all;           // Mask with every number possible
+    final int[] row;                  // Row of each spot
+    final int[] col;                  // Column of each spot
+    final int[] block;                // Block of each spot
+    final int[][] units;              // Spots of each row, then each column, then each block
+    final int[][] peers;              // Spots sharing a row, column or block with each spot
+    private final ThreadLocal<Propagator> propagator;  // Propagation queues for this shape, one per thread
+    private final ThreadLocal<Trail> trail;            // Undo trail for searches on this shape, one per thread
+    private final ThreadLocal<PropagationKernel> kernel;  // Kernel for whole board propagation, one per thread
+
+    // Geometry constructor, building the unit and peer tables
+    private Geometry(int box) {
+        this.box = box;
+        size = box * box;
+        cells = size * size;
+        all = size == 64 ? -1L : (1L << size) - 1;
+        row = new int[cells];
+        col = new int[cells];
+        block = new int[cells];
+        units = new int[3 * size][size];
+        peers = new int[cells][3 * size - 2 * box - 1];
+
+        for (int i = 0; i < cells; i++) {
+            row[i] = i / size;
+            col[i] = i % size;
+            block[i] = (row[i] / box) * box + col[i] / box;
+            units[row[i]][col[i]] = i;
+            units[size + col[i]][row[i]] = i;
+            units[2 * size + block[i]][(row[i] % box) * box + col[i] % box] = i;
+        }
+        for (int i = 0; i < cells; i++) {
+            int n = 0;
+            for (int j = 0; j < cells; j++)
+                if (j != i && (row[j] == row[i] || col[j] == col[i] || block[j] == block[i]))
+                    peers[i][n++] = j;
+        }
+        propagator = ThreadLocal.withInitial(() -> new Propagator(this));
+        trail = ThreadLocal.withInitial(() -> new Trail(this));
+        kernel = ThreadLocal.withInitial(() -> newKernel(propagator()));
+    }
+
+    // Returns the shape with the given block size
+    public static synchronized Geometry of(int box) {
+        if (box < 2 || box > MAX_BOX)
+            throw new IllegalArgumentException("Block size must be 2 to " + MAX_BOX + ", got " + box);
+        if (SHAPES[box] == null)
+            SHAPES[box] = new Geometry(box);
+        return SHAPES[box];
+    }
+
+    // Returns the shape of a board with the given side length
+    public static Geometry forSize(int size) {
+        int box = (int) Math.round(Math.sqrt(size));
+        if (box * box != size)
+            throw new IllegalArgumentException("Board side must be a square, got " + size);
+        return of(box);
+    }
+
+    // Returns the shape of a board with the given number of spots
+    public static Geometry forCells(int cells) {
+        for (Geometry g : SHAPES)
+            if (g != null && g.cells == cells)
+                return g;
+        return forSize((int) Math.round(Math.sqrt(cells)));
+    }
+
+    // Returns the shape of a matrix of numbers
+    public static Geometry of(int[][] b) {
+        return forSize(b.length);
+    }
+
+    // Accessor methods
+    public int getBox() { return box; }
+    public int getSize() { return size; }
+    public int getCells() { return cells; }
+    public long getAll() { return all; }
+    public int getBlock(int r, int c) { return (r / box) * box + c / box; }
+
+    // Returns this thread's propagator for this shape
+    public Propagator propagator() { return propagator.get(); }
+
+    // Returns this thread's undo trail for this shape
+    public Trail trail() { return trail.get(); }
+
+    // Returns this thread's kernel for propagating whole boards of this shape
+    public PropagationKernel kernel() { return kernel.get(); }
+
+    // Makes the vectorized kernel if it was asked for and can be loaded,
+    //   otherwise falls back to the given propagator
+    PropagationKernel newKernel(Propagator fallback) {
+        PropagationKernel k = USE_VECTOR ? PropagationKernel.vector(this) : null;
+        return k != null ? k : fallback;
+    }
+
+    // Returns the mask for a single number
+    public static long bit(int num) { return 1L << (num - 1); }
+
+    // Returns the number for a mask with a single bit set
+    public static int digit(long mask) { return Long.numberOfTrailingZeros(mask) + 1; }
+
+    // Indicates whether a mask holds exactly one number
+    public static boolean isSingle(long mask) { return mask != 0 && (mask & (mask - 1)) == 0; }
+
+}
@@ -0,0 +1,296 @@
+/**
+ *  Grader rates a puzzle by solving it the way a person would,
+ *     always using the easiest technique that makes progress,
+ *     and scoring it by the hardest technique it needed
+ *
+ *  Grading works on 9x9 boards only. A Grader reuses its candidate
+ *     arrays between puzzles, so keep one per thread rather than
+ *     sharing it
+ */
+
+public class Grader {
+
+    // Shape of the boards graded
+    private static final Geometry GEO = Geometry.of(3);
+    private static final int ALL = 0x1FF;         // Mask with every number 1-9 possible
+
+    // Instance variables
+    private int[] opt = new int[81];              // Candidate mask for each spot
+    private boolean[] placed = new boolean[81];   // Whether each spot's number has been placed
+    private int left;                             // Number of spots not yet placed
+    private int last = -1;                        // Spot placed by the last step, or -1
+
+    // Grades a board, returning the hardest technique needed to solve it,
+    //   GUESS if techniques alone cannot finish it, or null if it has
+    //   a contradiction
+    public Technique grade(int[][] board) {
+        load(board);
+        Technique hardest = Technique.NAKED_SINGLE;
+        while (left > 0) {
+            if (isBroken())
+                return null;
+            Technique t = step();
+            if (t == null)
+                return Technique.GUESS;
+            if (t.compareTo(hardest) > 0)
+                hardest = t;
+        }
+        return isBroken() ? null : hardest;
+    }
+
+    // Loads a board, marking its numbers as placed
+    public void load(int[][] board) {
+        if (board.length != 9)
+            throw new IllegalArgumentException("Only 9x9 boards can be graded");
+        left = 81;
+        for (int i = 0; i < 81; i++) {
+            int num = board[GEO.row[i]][GEO.col[i]];
+            opt[i] = num == 0 ? ALL : 1 << (num - 1);
+            placed[i] = false;
+        }
+        for (int i = 0; i < 81; i++)
+            if (board[GEO.row[i]][GEO.col[i]] != 0)
+                place(i);
+    }
+
+    // Indicates whether every spot has been placed
+    public boolean isDone() { return left == 0; }
+
+    // Indicates whether some spot has no options left
+    public boolean isBroken() {
+        for (int el : opt)
+            if (el == 0)
+                return true;
+        return false;
+    }
+
+    // Returns the options left for a spot
+    public int getOptions(int i) { return opt[i]; }
+
+    // Returns the spot placed by the last step, or -1 if it only removed options
+    public int getLastPlaced() { return last; }
+
+    // Applies the easiest technique that makes progress once,
+    //   returning it, or null if none does
+    public Technique step() {
+        last = -1;
+        if (nakedSingle()) return Technique.NAKED_SINGLE;
+        if (hiddenSingle()) return Technique.HIDDEN_SINGLE;
+        if (lockedCandidates()) return Technique.LOCKED_CANDIDATES;
+        if (nakedSubset(2)) return Technique.NAKED_PAIR;
+        if (hiddenSubset(2)) return Technique.HIDDEN_PAIR;
+        if (nakedSubset(3)) return Technique.NAKED_TRIPLE;
+        if (hiddenSubset(3)) return Technique.HIDDEN_TRIPLE;
+        if (xWing(0) || xWing(9)) return Technique.X_WING;
+        return null;
+    }
+
+    // Indicates whether a mask holds exactly one number
+    private static boolean isSingle(int mask) { return mask != 0 && (mask & (mask - 1)) == 0; }
+
+    // Places the single option of a spot and removes it from every peer
+    private void place(int i) {
+        placed[i] = true;
+        last = i;
+        left--;
+        for (int p : GEO.peers[i])
+            opt[p] &= ~opt[i];
+    }
+
+    // Removes numbers from an open spot, returning whether any were there
+    private boolean remove(int i, int rem) {
+        if (placed[i] || (opt[i] & rem) == 0)
+            return false;
+        opt[i] &= ~rem;
+        return true;
+    }
+
+    // Places a spot that has only one option left
+    private boolean nakedSingle() {
+        for (int i = 0; i < 81; i++)
+            if (!placed[i] && isSingle(opt[i])) {
+                place(i);
+                return true;
+            }
+        return false;
+    }
+
+    // Places a number that fits in only one spot of a unit
+    private boolean hiddenSingle() {
+        for (int[] unit : GEO.units) {
+            int once = 0, twice = 0, done = 0;
+            for (int i : unit)
+                if (placed[i]) {
+                    done |= opt[i];
+                } else {
+                    twice |= once & opt[i];
+                    once |= opt[i];
+                }
+            int only = once & ~twice & ~done;
+            if (only != 0) {
+                int b = only & -only;
+                for (int i : unit)
+                    if (!placed[i] && (opt[i] & b) != 0) {
+                        opt[i] = b;
+                        place(i);
+                        return true;
+                    }
+            }
+        }
+        return false;
+    }
+
+    // Removes a number from the rest of a row or column when it is confined
+    //   to that line within a block, or from the rest of a block when it
+    //   is confined to that block within a line
+    private boolean lockedCandidates() {
+        for (int b = 0; b < 9; b++)
+            for (int d = 0; d < 9; d++) {
+                int bit = 1 << d, rows = 0, cols = 0;
+                for (int i : GEO.units[18 + b])
+                    if (!placed[i] && (opt[i] & bit) != 0) {
+                        rows |= 1 << GEO.row[i];
+                        cols |= 1 << GEO.col[i];
+                    }
+                if (isSingle(rows) && clearOutside(GEO.units[Integer.numberOfTrailingZeros(rows)], b, bit))
+                    return true;
+                if (isSingle(cols) && clearOutside(GEO.units[9 + Integer.numberOfTrailingZeros(cols)], b, bit))
+                    return true;
+            }
+
+        for (int u = 0; u < 18; u++)
+            for (int d = 0; d < 9; d++) {
+                int bit = 1 << d, blocks = 0;
+                for (int i : GEO.units[u])
+                    if (!placed[i] && (opt[i] & bit) != 0)
+                        blocks |= 1 << GEO.block[i];
+                if (isSingle(blocks)) {
+                    boolean changed = false;
+                    for (int i : GEO.units[18 + Integer.numberOfTrailingZeros(blocks)])
+                        if (!inUnit(GEO.units[u], i))
+                            changed |= remove(i, bit);
+                    if (changed)
+                        return true;
+                }
+            }
+        return false;
+    }
+
+    // Removes a number from the spots of a line outside the given block
+    private boolean clearOutside(int[] line, int block, int bit) {
+        boolean changed = false;
+        for (int i : line)
+            if (GEO.block[i] != block)
+                changed |= remove(i, bit);
+        return changed;
+    }
+
+    // Indicates whether a spot belongs to a unit
+    private static boolean inUnit(int[] unit, int i) {
+        for (int j : unit)
+            if (j == i)
+                return true;
+        return false;
+    }
+
+    // Finds n open spots of a unit whose options together hold only n
+    //   numbers, and removes those numbers from the rest of the unit
+    private boolean nakedSubset(int n) {
+        for (int[] unit : GEO.units) {
+            int open = 0;
+            for (int j = 0; j < 9; j++)
+                if (!placed[unit[j]] && Integer.bitCount(opt[unit[j]]) <= n)
+                    open |= 1 << j;
+
+            for (int set = open; set != 0; set = (set - 1) & open) {
+                if (Integer.bitCount(set) != n)
+                    continue;
+                int union = 0;
+                for (int j = 0; j < 9; j++)
+                    if ((set & (1 << j)) != 0)
+                        union |= opt[unit[j]];
+                if (Integer.bitCount(union) != n)
+                    continue;
+                boolean changed = false;
+                for (int j = 0; j < 9; j++)
+                    if ((set & (1 << j)) == 0)
+                        changed |= remove(unit[j], union);
+                if (changed)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    // Finds n numbers that fit in only the same n spots of a unit, and
+    //   removes every other option from those spots
+    private boolean hiddenSubset(int n) {
+        int[] where = new int[9];
+        for (int[] unit : GEO.units) {
+            int open = 0;
+            for (int d = 0; d < 9; d++) {
+                where[d] = 0;
+                for (int j = 0; j < 9; j++)
+                    if (!placed[unit[j]] && (opt[unit[j]] & (1 << d)) != 0)
+                        where[d] |= 1 << j;
+                if (where[d] != 0)
+                    open |= 1 << d;
+            }
+
+            for (int set = open; set != 0; set = (set - 1) & open) {
+                if (Integer.bitCount(set) != n)
+                    continue;
+                int spots = 0;
+                for (int d = 0; d < 9; d++)
+                    if ((set & (1 << d)) != 0)
+                        spots |= where[d];
+                if (Integer.bitCount(spots) != n)
+                    continue;
+                boolean changed = false;
+                for (int j = 0; j < 9; j++)
+                    if ((spots & (1 << j)) != 0)
+                        changed |= remove(unit[j], ~set & ALL);
+                if (changed)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    // Finds a number confined to the same two crossing lines in two parallel
+    //   lines, and removes it from the rest of the crossing lines; base is 0
+    //   to use rows as the parallel lines and 9 to use columns
+    private boolean xWing(int base) {
+        int cross = 9 - base;
+        for (int d = 0; d < 9; d++) {
+            int bit = 1 << d;
+            int[] where = new int[9];
+            for (int u = 0; u < 9; u++)
+                for (int j = 0; j < 9; j++) {
+                    int i = GEO.units[base + u][j];
+                    if (!placed[i] && (opt[i] & bit) != 0)
+                        where[u] |= 1 << j;
+                }
+
+            for (int u = 0; u < 9; u++) {
+                if (Integer.bitCount(where[u]) != 2)
+                    continue;
+                for (int v = u + 1; v < 9; v++) {
+                    if (where[v] != where[u])
+                        continue;
+                    boolean changed = false;
+                    for (int rem = where[u]; rem != 0; rem &= rem - 1)
+                        for (int i : GEO.units[cross + Integer.numberOfTrailingZeros(rem)]) {
+                            int line = base == 0 ? GEO.row[i] : GEO.col[i];
+                            if (line != u && line != v)
+                                changed |= remove(i, bit);
+                        }
+                    if (changed)
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,79 @@
+/**
+ *  GridShuffler produces full valid Sudoku boards by applying
+ *     random validity preserving transformations to a few seed
+ *     boards, so a new board never needs a solve or a retry
+ *
+ *  The transformations are relabeling the numbers, permuting the
+ *     rows within each band, the bands, the columns within each
+ *     stack and the stacks, and transposing the board. Boards other
+ *     than 9x9 are shuffled from the standard pattern board. Every
+ *     choice is drawn from the stream given, so the same stream
+ *     state gives the same board.
+ */
+
+// Necessary imports
+import java.util.SplittableRandom;
+
+public class GridShuffler {
+
+    // Solved 9x9 boards that the shuffled boards are built from
+    private static final String[] SEEDS = {
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179",
+            "812753649943682175675491283154237896369845721287169534521974368438526917796318452",
+            "693784512487512936125963874932651487568247391741398625319475268856129743274836159"
+    };
+
+    // Fills the given board, of any size, with a randomly shuffled seed board
+    public static void fill(int[][] board) {
+        fill(board, Seeds.stream());
+    }
+
+    // Fills the given board with a seed board shuffled by choices from a stream
+    public static void fill(int[][] board, SplittableRandom rnd) {
+        Geometry geo = Geometry.of(board);
+        int box = geo.getBox(), size = geo.getSize();
+        String seed = size == 9 ? SEEDS[rnd.nextInt(SEEDS.length)] : null;
+        int[] digits = permutation(size, rnd);
+        int[] rows = lines(box, rnd), cols = lines(box, rnd);
+        boolean transpose = rnd.nextBoolean();
+
+        for (int r = 0; r < size; r++)
+            for (int c = 0; c < size; c++) {
+                int sr = transpose ? cols[c] : rows[r];
+                int sc = transpose ? rows[r] : cols[c];
+                int num = seed != null ? seed.charAt(sr * 9 + sc) - '1' : pattern(box, sr, sc);
+                board[r][c] = digits[num] + 1;
+            }
+    }
+
+    // Returns the number, from 0, at a spot of the standard pattern board
+    private static int pattern(int box, int r, int c) {
+        return (box * (r % box) + r / box + c) % (box * box);
+    }
+
+    // Returns a random order of the rows or columns that only
+    //   moves whole bands and lines within a band
+    private static int[] lines(int box, SplittableRandom rnd) {
+        int[] bands = permutation(box, rnd), lines = new int[box * box];
+        for (int b = 0; b < box; b++) {
+            int[] within = permutation(box, rnd);
+            for (int i = 0; i < box; i++)
+                lines[b * box + i] = bands[b] * box + within[i];
+        }
+        return lines;
+    }
+
+    // Returns a random permutation of 0 to n-1
+    private static int[] permutation(int n, SplittableRandom rnd) {
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++)
+            p[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1), t = p[i];
+            p[i] = p[j];
+            p[j] = t;
+        }
+        return p;
+    }
+
+}
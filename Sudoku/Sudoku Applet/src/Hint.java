@@ -0,0 +1,32 @@
+/**
+ *  Hint is the next number a player can place, where it goes
+ *     and the hardest technique needed to see that it goes there
+ */
+
+public class Hint {
+
+    // Instance variables
+    private int row, col;         // Spot the number goes in
+    private int number;           // Number to place
+    private Technique technique;  // Hardest technique used to find it
+
+    // Hint constructor
+    public Hint(int row, int col, int number, Technique technique) {
+        this.row = row;
+        this.col = col;
+        this.number = number;
+        this.technique = technique;
+    }
+
+    // Accessor methods
+    public int getRow() { return row; }
+    public int getCol() { return col; }
+    public int getNumber() { return number; }
+    public Technique getTechnique() { return technique; }
+
+    // Describes the hint for the player, counting rows and columns from 1
+    public String toString() {
+        return number + " goes at row " + (row + 1) + ", column " + (col + 1) + " (" + technique.getLabel() + ")";
+    }
+
+}
@@ -0,0 +1,161 @@
+/**
+ *  ParallelSolver splits the guessing search over a ForkJoinPool
+ *
+ *  The first few guesses, always at the spot with the fewest
+ *     options, each become an independent task with its own
+ *     candidate board. Deeper guesses are searched sequentially,
+ *     and every task stops as soon as any branch finds a solution.
+ */
+
+// Necessary imports
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ParallelSolver implements SudokuSolver {
+
+    // Number of guess levels that are split into separate tasks
+    public static final int SPLIT_DEPTH = 3;
+
+    // Instance variables
+    private int[][] board;                    // Matrix of numbers on the board
+    private ForkJoinPool pool;                // Pool the branches run on
+    private AtomicReference<long[]> solution; // Candidate board of the first solution found
+    private boolean solved;                   // Indicator variable for whether or not board is solved
+    private SolverStats stats;                // Work counted during the last solve
+    private LongAdder nodes;                  // Search nodes visited by every branch
+    private LongAdder guesses;                // Numbers tried by every branch
+    private LongAdder backtracks;             // Guesses that led nowhere in every branch
+    private LongAccumulator maxDepth;         // Deepest nesting of guesses in any branch
+
+    // ParallelSolver constructor using the common pool
+    public ParallelSolver(int[][] b) {
+        this(b, ForkJoinPool.commonPool());
+    }
+
+    // ParallelSolver constructor using the given pool
+    public ParallelSolver(int[][] b, ForkJoinPool pool) {
+        board = b;
+        this.pool = pool;
+        solution = new AtomicReference<>();
+        solved = false;
+        stats = new SolverStats();
+        nodes = new LongAdder();
+        guesses = new LongAdder();
+        backtracks = new LongAdder();
+        maxDepth = new LongAccumulator(Math::max, 0);
+    }
+
+    // Standard accessor methods
+    public int[][] getBoard() { return board; }
+    public boolean isSolved() { return solved; }
+    public SolverStats getStats() { return stats; }
+
+    // Solves the current board and returns it
+    public int[][] solve() {
+        if (solved) return board;
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        long begin = System.nanoTime();
+
+        long[] start = Solver.toOptions(board);
+        if (Solver.reduce(start))
+            pool.invoke(new Branch(start, 0));
+
+        long[] opt = solution.get();
+        if (opt != null) {
+            for (int i = 0; i < opt.length; i++)
+                board[i / board.length][i % board.length] = Geometry.digit(opt[i]);
+            solved = true;
+        }
+
+        // every guess runs one propagation pass, plus the first one
+        stats.nodes = nodes.sum();
+        stats.guesses = guesses.sum();
+        stats.backtracks = backtracks.sum();
+        stats.propagations = stats.guesses + 1;
+        stats.maxDepth = (int) maxDepth.get();
+        stats.nanos = System.nanoTime() - begin;
+        stats.record("PARALLEL", solved, event);
+        return board;
+    }
+
+    // Records a finished candidate board if it is the first one found
+    private boolean finish(long[] opt) {
+        return solution.compareAndSet(null, opt);
+    }
+
+    // Sequentially guesses at the most constrained spot until a
+    //   solution is found here or by another branch, making each guess
+    //   in place and taking it back from the trail when it fails
+    private boolean search(long[] opt, int depth, Propagator prop, Trail trail) {
+        if (solution.get() != null)
+            return false;
+        nodes.increment();
+        maxDepth.accumulate(depth);
+        int i = Solver.mostConstrained(opt);
+        if (i < 0)
+            return finish(opt);
+
+        int mark = trail.mark();
+        for (long rem = opt[i]; rem != 0; rem &= rem - 1) {
+            guesses.increment();
+            if (prop.assign(opt, i, rem & -rem, trail) && search(opt, depth + 1, prop, trail))
+                return true;
+            trail.undo(opt, mark);
+            backtracks.increment();
+        }
+        return false;
+    }
+
+    // Task searching the boards reachable from one candidate board
+    private class Branch extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private long[] opt;    // Candidate board owned by this task, already propagated
+        private int depth;     // Number of guesses made to reach it
+
+        private Branch(long[] opt, int depth) {
+            this.opt = opt;
+            this.depth = depth;
+        }
+
+        // Forks one task per option of the most constrained spot, or
+        //   searches sequentially once deep enough
+        protected void compute() {
+            if (depth >= SPLIT_DEPTH) {
+                Geometry geo = Geometry.forCells(opt.length);
+                Trail trail = geo.trail();
+                trail.clear();
+                search(opt, depth, geo.propagator(), trail);
+                return;
+            }
+            if (solution.get() != null)
+                return;
+            nodes.increment();
+            maxDepth.accumulate(depth);
+            int i = Solver.mostConstrained(opt);
+            if (i < 0) {
+                finish(opt);
+                return;
+            }
+
+            List<Branch> branches = new ArrayList<>();
+            for (long rem = opt[i]; rem != 0; rem &= rem - 1) {
+                long[] next = opt.clone();
+                guesses.increment();
+                if (Solver.assign(next, i, rem & -rem))
+                    branches.add(new Branch(next, depth + 1));
+                else
+                    backtracks.increment();
+            }
+            invokeAll(branches);
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+/**
+ *  PropagationKernel is a way of propagating a whole candidate
+ *     board to its fixpoint, so the worklist Propagator can be
+ *     swapped for the vectorized kernel when the JVM offers it
+ *
+ *  The vectorized kernel lives in the Sudoku Vector module and
+ *     needs the jdk.incubator.vector module, so it is only ever
+ *     loaded by name. Run with -Dsudoku.kernel=vector and
+ *     --add-modules jdk.incubator.vector to use it.
+ */
+
+public interface PropagationKernel {
+
+    // Name of the class of the vectorized kernel
+    String VECTOR_CLASS = "VectorKernel";
+
+    // Propagates every decided spot of a candidate board to a fixpoint,
+    //   returning false if some spot or number is left with no place
+    boolean propagate(long[] opt);
+
+    // Returns a new vectorized kernel for a shape, or null if its class
+    //   or the jdk.incubator.vector module is not available
+    static PropagationKernel vector(Geometry geo) {
+        try {
+            return (PropagationKernel) Class.forName(VECTOR_CLASS).getConstructor(Geometry.class).newInstance(geo);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+/**
+ *  Propagator runs constraint propagation on a candidate board
+ *     from a worklist, so only spots and units touched by a
+ *     change are looked at again
+ *
+ *  When a spot is decided its number is removed from its peers.
+ *     When a spot loses an option its three units are queued and
+ *     checked for numbers that now fit in only one spot. The loop
+ *     stops exactly when both queues are empty.
+ *
+ *  A Propagator reuses its queues, so keep one per thread, as
+ *     Geometry.propagator() does, or one per reused Solver
+ */
+
+public class Propagator implements PropagationKernel {
+
+    // Instance variables
+    private Geometry geo;         // Shape of the boards propagated
+    private int[] cells;          // Decided spots waiting to be removed from their peers
+    private int head, tail;       // Bounds of the spot queue
+    private int[] units;          // Units waiting for a hidden single check, as a ring
+    private int unitHead, unitCount;  // Start and length of the unit ring
+    private boolean[] queued;     // Whether each unit is in the ring
+    private Trail trail;          // Trail recording changes of the current run, or null
+    private int failedSpot;       // Spot left with no options by the last failed run, or -1
+    private int failedUnit;       // Unit left without a place for some number, or -1
+    private long missing;         // Numbers with no place in the failed unit
+
+    // Propagator constructor
+    public Propagator(Geometry geo) {
+        this.geo = geo;
+        cells = new int[geo.getCells()];
+        units = new int[geo.units.length];
+        queued = new boolean[geo.units.length];
+    }
+
+    // Accessor methods for why the last run failed
+    public int getFailedSpot() { return failedSpot; }
+    public int getFailedUnit() { return failedUnit; }
+    public long getMissing() { return missing; }
+
+    // Propagates every decided spot of a candidate board to a fixpoint,
+    //   returning false if some spot or number is left with no place
+    public boolean propagate(long[] opt) {
+        clear();
+        for (int i = 0; i < opt.length; i++) {
+            if (opt[i] == 0) {
+                failedSpot = i;
+                return false;
+            }
+            if (Geometry.isSingle(opt[i]))
+                cells[tail++] = i;
+        }
+        for (int u = 0; u < units.length; u++)
+            queueUnit(u);
+        return run(opt);
+    }
+
+    // Decides a spot of a board already at its fixpoint and propagates
+    //   only that change, returning false on a contradiction
+    public boolean assign(long[] opt, int i, long bit) {
+        return assign(opt, i, bit, null);
+    }
+
+    // Decides a spot like assign, recording every change on the trail
+    //   so it can be undone, including those made before a contradiction
+    public boolean assign(long[] opt, int i, long bit, Trail trail) {
+        clear();
+        this.trail = trail;
+        set(opt, i, bit);
+        cells[tail++] = i;
+        queueUnits(i);
+        boolean ok = run(opt);
+        this.trail = null;
+        return ok;
+    }
+
+    // Changes the mask of a spot, on the trail if there is one
+    private void set(long[] opt, int i, long mask) {
+        if (trail != null)
+            trail.set(opt, i, mask);
+        else
+            opt[i] = mask;
+    }
+
+    // Empties both queues
+    private void clear() {
+        failedSpot = failedUnit = -1;
+        missing = 0;
+        head = tail = 0;
+        unitHead = unitCount = 0;
+        for (int u = 0; u < queued.length; u++)
+            queued[u] = false;
+    }
+
+    // Queues a unit for a hidden single check unless already queued
+    private void queueUnit(int u) {
+        if (!queued[u]) {
+            queued[u] = true;
+            units[(unitHead + unitCount++) % units.length] = u;
+        }
+    }
+
+    // Queues the row, column and block of a spot
+    private void queueUnits(int i) {
+        queueUnit(geo.row[i]);
+        queueUnit(geo.getSize() + geo.col[i]);
+        queueUnit(2 * geo.getSize() + geo.block[i]);
+    }
+
+    // Works through both queues until neither has anything left
+    private boolean run(long[] opt) {
+        while (head < tail || unitCount > 0) {
+            while (head < tail) {
+                int i = cells[head++];
+                long b = opt[i];
+                for (int p : geo.peers[i]) {
+                    if ((opt[p] & b) == 0)
+                        continue;
+                    set(opt, p, opt[p] & ~b);
+                    if (opt[p] == 0) {
+                        failedSpot = p;
+                        return false;
+                    }
+                    if (Geometry.isSingle(opt[p]))
+                        cells[tail++] = p;
+                    queueUnits(p);
+                }
+            }
+
+            if (unitCount > 0) {
+                int u = units[unitHead];
+                unitHead = (unitHead + 1) % units.length;
+                unitCount--;
+                queued[u] = false;
+                if (!hiddenSingles(opt, geo.units[u])) {
+                    failedUnit = u;
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Decides each number that fits in only one spot of a unit,
+    //   returning false if some number fits nowhere
+    private boolean hiddenSingles(long[] opt, int[] unit) {
+        long once = 0, twice = 0;
+        for (int i : unit) {
+            twice |= once & opt[i];
+            once |= opt[i];
+        }
+        if (once != geo.getAll()) {
+            missing = geo.getAll() & ~once;
+            return false;
+        }
+
+        for (long only = once & ~twice; only != 0; only &= only - 1) {
+            long b = only & -only;
+            for (int i : unit)
+                if ((opt[i] & b) != 0) {
+                    if (opt[i] != b) {
+                        set(opt, i, b);
+                        cells[tail++] = i;
+                        queueUnits(i);
+                    }
+                    break;
+                }
+        }
+        return true;
+    }
+
+}
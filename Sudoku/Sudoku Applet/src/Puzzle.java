@@ -0,0 +1,43 @@
+/**
+ *  Puzzle holds a generated Sudoku board together with
+ *     its solution, the difficulty it was made for, the
+ *     seed it can be made again from and, once graded, the
+ *     hardest technique it needs
+ */
+
+public class Puzzle {
+
+    // Instance variables
+    private int[][] board;        // Matrix containing the puzzle, 0 for open spots
+    private int[][] solution;     // Matrix containing the solved puzzle
+    private String difficulty;    // Difficulty the puzzle was generated for
+    private long seed;            // Seed the puzzle was generated from, 0 if not known
+    private Technique grade;      // Hardest technique needed to solve it, or null if not graded
+
+    // Puzzle constructor
+    public Puzzle(int[][] board, int[][] solution, String difficulty) {
+        this(board, solution, difficulty, 0);
+    }
+
+    // Puzzle constructor for a puzzle generated from a seed
+    public Puzzle(int[][] board, int[][] solution, String difficulty, long seed) {
+        this(board, solution, difficulty, seed, null);
+    }
+
+    // Puzzle constructor for a puzzle generated from a seed and graded
+    public Puzzle(int[][] board, int[][] solution, String difficulty, long seed, Technique grade) {
+        this.board = board;
+        this.solution = solution;
+        this.difficulty = difficulty;
+        this.seed = seed;
+        this.grade = grade;
+    }
+
+    // Accessor methods
+    public int[][] getBoard() { return board; }
+    public int[][] getSolution() { return solution; }
+    public String getDifficulty() { return difficulty; }
+    public long getSeed() { return seed; }
+    public Technique getGrade() { return grade; }
+
+}
@@ -0,0 +1,92 @@
+/**
+ *  PuzzlePool keeps a bounded queue of ready puzzles for each
+ *     difficulty so starting a game is just a dequeue
+ *
+ *  A background thread per difficulty sleeps until its queue
+ *     drops to the low watermark, then generates puzzles until
+ *     the queue is back at the high watermark
+ */
+
+// Necessary imports
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class PuzzlePool {
+
+    // Instance variables
+    private Map<String, BlockingQueue<Puzzle>> queues;    // Ready puzzles for each difficulty
+    private Map<String, Thread> workers;                  // Refill thread for each difficulty
+    private int low;                                      // Size at which a queue is refilled
+    private int high;                                     // Size a queue is refilled up to
+
+    // PuzzlePool constructor, starting a refill thread for each difficulty
+    public PuzzlePool(int low, int high, String... difficulties) {
+        if (low < 0 || high < 1 || low >= high)
+            throw new IllegalArgumentException("Need 0 <= low < high, got " + low + " and " + high);
+        this.low = low;
+        this.high = high;
+        queues = new HashMap<>();
+        workers = new HashMap<>();
+
+        for (String d : difficulties) {
+            BlockingQueue<Puzzle> q = new ArrayBlockingQueue<>(high);
+            Thread t = new Thread(() -> refill(d, q), "PuzzlePool-" + d);
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            queues.put(d, q);
+            workers.put(d, t);
+            t.start();
+        }
+    }
+
+    // Accessor methods
+    public int getLow() { return low; }
+    public int getHigh() { return high; }
+
+    // Returns the number of ready puzzles of a difficulty
+    public int size(String difficulty) {
+        BlockingQueue<Puzzle> q = queues.get(difficulty);
+        return q == null ? 0 : q.size();
+    }
+
+    // Takes a ready puzzle of the given difficulty, generating one on
+    //   the calling thread only if the pool has run dry
+    public Puzzle take(String difficulty) {
+        BlockingQueue<Puzzle> q = queues.get(difficulty);
+        if (q == null)
+            return SudokuGame.generate(difficulty);
+
+        Puzzle p = q.poll();
+        if (q.size() <= low)
+            synchronized (q) {
+                q.notifyAll();
+            }
+        return p != null ? p : SudokuGame.generate(difficulty);
+    }
+
+    // Stops the refill threads
+    public void shutdown() {
+        for (Thread t : workers.values())
+            t.interrupt();
+    }
+
+    // Waits for a queue to reach the low watermark, then fills it to
+    //   the high watermark, until interrupted
+    private void refill(String difficulty, BlockingQueue<Puzzle> q) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                synchronized (q) {
+                    while (q.size() > low)
+                        q.wait();
+                }
+                while (q.size() < high)
+                    q.put(SudokuGame.generate(difficulty));
+            }
+        } catch (InterruptedException e) {
+            // shutting down
+        }
+    }
+
+}
@@ -0,0 +1,236 @@
+/**
+ *  PuzzleStore keeps generated puzzles in a file of fixed size
+ *     binary records, memory mapped so any puzzle is read by
+ *     index without parsing and new ones are appended in place
+ *
+ *  Usage: java PuzzleStore file count [difficulty] [size] [carvers] [graders]
+ *     appends count newly generated puzzles to the file, made by a
+ *     GenerationPipeline with the given number of clue removal and
+ *     grading workers
+ *
+ *  The file starts with a 32 byte header: magic, version, block
+ *     size, record size and number of records. Each record holds
+ *     the seed (8 bytes), the grade (1 byte, Technique ordinal + 1
+ *     or 0 when not graded), the difficulty it was made for (1 byte,
+ *     index in DIFFICULTIES + 1 or 0 when not known), a bitmap of
+ *     the given spots and the solution packed with as few bits per
+ *     number as the size needs, padded to a multiple of 8 bytes. A
+ *     9x9 record is 64 bytes: 8 + 1 + 1 + 11 + 41 and 2 of padding.
+ *     The file is grown ahead of the last record, so the count in
+ *     the header, not the file length, says how many records there
+ *     are.
+ */
+
+// Necessary imports
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+public class PuzzleStore implements Closeable {
+
+    // Layout constants
+    private static final int MAGIC = 0x53444B53;          // "SDKS"
+    private static final short VERSION = 2;
+    private static final int HEADER = 32;                 // Bytes before the first record
+    private static final int COUNT_AT = 12;               // Offset of the record count in the header
+    private static final int CLUES_AT = 10;               // Offset of the clue bitmap in a record
+    private static final String[] DIFFICULTIES = {"easy", "hard"};  // Difficulties a record can name
+    private static final int GROW = 1024;                 // Records mapped ahead of the last one
+
+    // Instance variables
+    private FileChannel channel;          // Channel of the open file
+    private MappedByteBuffer buf;         // Mapping of the header and every record
+    private Geometry geo;                 // Shape of every puzzle in the store
+    private int bits;                     // Bits used for each number of the solution
+    private int clueBytes;                // Bytes in the bitmap of given spots
+    private int recordSize;               // Bytes in each record
+    private int count;                    // Number of records written
+
+    // PuzzleStore constructor, opening the file or creating it for
+    //   puzzles with the given block size
+    public PuzzleStore(Path file, int box) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        geo = Geometry.of(box);
+        bits = 32 - Integer.numberOfLeadingZeros(geo.getSize() - 1);
+        clueBytes = (geo.getCells() + 7) / 8;
+        recordSize = (CLUES_AT + clueBytes + (geo.getCells() * bits + 7) / 8 + 7) & ~7;
+
+        if (channel.size() == 0) {
+            map(GROW);
+            buf.putInt(0, MAGIC);
+            buf.putShort(4, VERSION);
+            buf.putShort(6, (short) box);
+            buf.putInt(8, recordSize);
+            buf.putInt(COUNT_AT, 0);
+            count = 0;
+        } else {
+            map(0);
+            if (buf.getInt(0) != MAGIC)
+                throw new IOException(file + " is not a puzzle store");
+            if (buf.getShort(4) != VERSION)
+                throw new IOException(file + " is a version " + buf.getShort(4) + " puzzle store, not " + VERSION);
+            if (buf.getShort(6) != box)
+                throw new IOException(file + " holds puzzles with block size " + buf.getShort(6) + ", not " + box);
+            if (buf.getInt(8) != recordSize)
+                throw new IOException(file + " has " + buf.getInt(8) + " byte records, not " + recordSize);
+            count = buf.getInt(COUNT_AT);
+            map(count + GROW);
+        }
+    }
+
+    // PuzzleStore constructor for an existing file, taking the block size from its header
+    public PuzzleStore(Path file) throws IOException {
+        this(file, boxOf(file));
+    }
+
+    // Runs the generator from the command line, appending to a store
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: java PuzzleStore file count [difficulty] [size] [carvers] [graders]");
+            System.exit(1);
+        }
+        int n = Integer.parseInt(args[1]);
+        String difficulty = args.length > 2 ? args[2] : "easy";
+        int box = args.length > 3 ? Geometry.forSize(Integer.parseInt(args[3])).getBox() : 3;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int carvers = args.length > 4 ? Integer.parseInt(args[4]) : cores;
+        int graders = args.length > 5 ? Integer.parseInt(args[5]) : Math.max(1, cores / 4);
+
+        try (PuzzleStore store = new PuzzleStore(Paths.get(args[0]), box)) {
+            store.difficultyCode(difficulty);     // fails before generating if no record can name it
+            GenerationPipeline pipeline = new GenerationPipeline(difficulty, box, 1, carvers, graders, store::append);
+            pipeline.run(n);
+            System.out.printf("Appended %d puzzles in %.3f s, %d in store%n",
+                    n, pipeline.getNanos() / 1e9, store.size());
+            System.out.print(pipeline.report());
+        }
+    }
+
+    // Accessor methods
+    public Geometry getGeometry() { return geo; }
+    public int getRecordSize() { return recordSize; }
+    public synchronized int size() { return count; }
+
+    // Reads the block size from the header of an existing store
+    private static int boxOf(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if (head.getInt(0) != MAGIC)
+                throw new IOException(file + " is not a puzzle store");
+            return head.getShort(6);
+        }
+    }
+
+    // Maps the header and room for the given number of records,
+    //   or for as many as the file already holds if that is more
+    private void map(long records) throws IOException {
+        long bytes = Math.max(channel.size(), HEADER + records * recordSize);
+        buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+    }
+
+    // Returns the byte a record stores for a difficulty, 0 for none
+    private int difficultyCode(String difficulty) {
+        if (difficulty == null)
+            return 0;
+        for (int k = 0; k < DIFFICULTIES.length; k++)
+            if (DIFFICULTIES[k].equals(difficulty))
+                return k + 1;
+        throw new IllegalArgumentException("Store cannot hold puzzles of difficulty " + difficulty);
+    }
+
+    // Adds a puzzle with its seed, difficulty and grade to the end of
+    //   the store, returning its index
+    public synchronized int append(Puzzle p) throws IOException {
+        int[][] board = p.getBoard(), solution = p.getSolution();
+        if (board.length != geo.getSize())
+            throw new IllegalArgumentException("Store holds " + geo.getSize() + "x" + geo.getSize() + " puzzles");
+        int difficulty = difficultyCode(p.getDifficulty());
+        Technique grade = p.getGrade();
+        if ((long) HEADER + (long) (count + 1) * recordSize > buf.capacity())
+            map(count + GROW);
+
+        int at = HEADER + count * recordSize;
+        for (int k = 0; k < recordSize; k++)
+            buf.put(at + k, (byte) 0);
+        buf.putLong(at, p.getSeed());
+        buf.put(at + 8, (byte) (grade == null ? 0 : grade.ordinal() + 1));
+        buf.put(at + 9, (byte) difficulty);
+        for (int i = 0; i < geo.getCells(); i++) {
+            int r = geo.row[i], c = geo.col[i];
+            if (board[r][c] != 0)
+                putBits(at + CLUES_AT, i, 1, 1);
+            putBits(at + CLUES_AT + clueBytes, i * bits, bits, solution[r][c] - 1);
+        }
+        buf.putInt(COUNT_AT, ++count);
+        return count - 1;
+    }
+
+    // Fills a board with the puzzle at an index and another with its solution
+    public synchronized void read(int index, int[][] board, int[][] solution) {
+        int at = offset(index);
+        for (int i = 0; i < geo.getCells(); i++) {
+            int r = geo.row[i], c = geo.col[i];
+            solution[r][c] = getBits(at + CLUES_AT + clueBytes, i * bits, bits) + 1;
+            board[r][c] = getBits(at + CLUES_AT, i, 1) != 0 ? solution[r][c] : 0;
+        }
+    }
+
+    // Returns the puzzle at an index with its difficulty, seed and grade
+    public Puzzle get(int index) {
+        int size = geo.getSize();
+        int[][] board = new int[size][size], solution = new int[size][size];
+        read(index, board, solution);
+        return new Puzzle(board, solution, getDifficulty(index), getSeed(index), getGrade(index));
+    }
+
+    // Returns the difficulty a puzzle was made for, or null if not known
+    public synchronized String getDifficulty(int index) {
+        int d = buf.get(offset(index) + 9);
+        return d == 0 ? null : DIFFICULTIES[d - 1];
+    }
+
+    // Returns the grade stored with a puzzle, or null if it was not graded
+    public synchronized Technique getGrade(int index) {
+        int g = buf.get(offset(index) + 8);
+        return g == 0 ? null : Technique.values()[g - 1];
+    }
+
+    // Returns the seed stored with a puzzle; with its difficulty and the
+    //   store's block size, SudokuGame.generate makes the same puzzle
+    public synchronized long getSeed(int index) {
+        return buf.getLong(offset(index));
+    }
+
+    // Writes the mapped records back to the file and closes it
+    public synchronized void close() throws IOException {
+        buf.force();
+        channel.close();
+    }
+
+    // Returns the byte offset of a record
+    private int offset(int index) {
+        if (index < 0 || index >= count)
+            throw new IndexOutOfBoundsException("Puzzle " + index + " of " + count);
+        return HEADER + index * recordSize;
+    }
+
+    // Writes a value of width bits starting at a bit offset from base
+    private void putBits(int base, int bit, int width, int value) {
+        for (int k = 0; k < width; k++, bit++)
+            if ((value >> k & 1) != 0) {
+                int at = base + (bit >> 3);
+                buf.put(at, (byte) (buf.get(at) | 1 << (bit & 7)));
+            }
+    }
+
+    // Reads a value of width bits starting at a bit offset from base
+    private int getBits(int base, int bit, int width) {
+        int value = 0;
+        for (int k = 0; k < width; k++, bit++)
+            value |= (buf.get(base + (bit >> 3)) >> (bit & 7) & 1) << k;
+        return value;
+    }
+
+}
@@ -0,0 +1,34 @@
+/**
+ *  Seeds hands out the random numbers puzzles are made from
+ *
+ *  Each thread draws from its own SplittableRandom, split from one
+ *     root the first time the thread asks, so generating on many
+ *     threads never contends on a shared generator. A puzzle is
+ *     made from a stream seeded with a single long drawn here, so
+ *     the seed and the difficulty are enough to make it again.
+ */
+
+// Necessary imports
+import java.util.SplittableRandom;
+
+public class Seeds {
+
+    // Stream every thread's stream is split from
+    private static final SplittableRandom ROOT = new SplittableRandom();
+
+    // Stream of the current thread
+    private static final ThreadLocal<SplittableRandom> STREAM = ThreadLocal.withInitial(Seeds::split);
+
+    // Returns the current thread's stream, not to be shared with other threads
+    public static SplittableRandom stream() { return STREAM.get(); }
+
+    // Returns a new seed for a puzzle
+    public static long next() { return STREAM.get().nextLong(); }
+
+    // Returns a stream that makes the same numbers for the same seed
+    public static SplittableRandom of(long seed) { return new SplittableRandom(seed); }
+
+    // Splits a new stream off the root
+    private static synchronized SplittableRandom split() { return ROOT.split(); }
+
+}
@@ -0,0 +1,75 @@
+/**
+ *  SolutionCache remembers the solutions of recently solved
+ *     boards, keyed by the board as a string of 81 digits. Used
+ *     with CanonicalForm keys, a puzzle that is a relabeling,
+ *     reordering or transpose of one already solved is answered
+ *     without searching
+ *
+ *  The cache is bounded and drops the least recently used board
+ *     once full. It is safe to share between threads.
+ */
+
+// Necessary imports
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SolutionCache {
+
+    // Solution stored for a board that has none
+    public static final int[] NONE = new int[0];
+
+    // Cache shared by every CachedSolver that is not given one
+    private static final SolutionCache SHARED = new SolutionCache(10000);
+
+    // Instance variables
+    private Map<String, int[]> map;       // Solution of each board, row major, in access order
+    private int capacity;                 // Most boards kept
+    private LongAdder hits;               // Lookups that found a solution
+    private LongAdder misses;             // Lookups that did not
+
+    // SolutionCache constructor
+    public SolutionCache(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        this.capacity = capacity;
+        map = new LinkedHashMap<String, int[]>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+                return size() > SolutionCache.this.capacity;
+            }
+        };
+        hits = new LongAdder();
+        misses = new LongAdder();
+    }
+
+    // Returns the cache shared by default
+    public static SolutionCache shared() { return SHARED; }
+
+    // Accessor methods
+    public int getCapacity() { return capacity; }
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public synchronized int size() { return map.size(); }
+
+    // Returns the solution of a board, NONE if it has none, or null if
+    //   the board is not cached
+    public synchronized int[] get(String board) {
+        int[] sol = map.get(board);
+        if (sol == null)
+            misses.increment();
+        else
+            hits.increment();
+        return sol;
+    }
+
+    // Stores the solution of a board
+    public synchronized void put(String board, int[] solution) {
+        map.put(board, solution);
+    }
+
+    // Forgets every board
+    public synchronized void clear() {
+        map.clear();
+    }
+
+}
@@ -0,0 +1,40 @@
+/**
+ *  SolveEvent is the JFR event emitted for every solve, so
+ *     slow and pathological puzzles show up in flight recordings
+ */
+
+// Necessary imports
+import jdk.jfr.*;
+
+@Name("sudoku.Solve")
+@Label("Sudoku Solve")
+@Category("Sudoku")
+@Description("One puzzle solved by a solver engine")
+@StackTrace(false)
+public class SolveEvent extends Event {
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Solved")
+    boolean solved;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Guesses")
+    long guesses;
+
+    @Label("Backtracks")
+    long backtracks;
+
+    @Label("Propagations")
+    long propagations;
+
+    @Label("Max Depth")
+    int maxDepth;
+
+    @Label("Cache Hit")
+    boolean cacheHit;
+
+}
@@ -0,0 +1,19 @@
+/**
+ *  SolveResult tells how a solve with a deadline ended
+ */
+
+public enum SolveResult {
+
+    SOLVED,             // Exactly one solution, filled into the board
+    SOLVED_UNVERIFIED,  // Deadline passed after a solution was found but before it was
+                        //   known to be the only one; that solution is filled into the board
+    UNSOLVABLE,         // No solution, board left as given
+    MULTIPLE,           // More than one solution, the first one found filled into the board
+    TIMED_OUT;          // Deadline passed before any solution was found, board left as given
+
+    // Indicates whether the board was filled with a solution
+    public boolean isFilled() {
+        return this == SOLVED || this == SOLVED_UNVERIFIED || this == MULTIPLE;
+    }
+
+}
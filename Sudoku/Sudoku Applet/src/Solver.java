@@ -1,56 +1,134 @@
 /**
  *  Solver class handles the solving of potential
  *     Sudoku boards and access of solved boards
+ *
+ *  Candidates for each spot are kept as a mask (bit n-1 set
+ *     when n may still go there) so that solving never boxes or
+ *     allocates sets. Boards of any Geometry are supported, with
+ *     the shape taken from the size of the board.
+ *
+ *  solve(deadline) bounds the time a solve may take. Its search
+ *     keeps its own stack of guesses instead of recursing, so no
+ *     board can run the thread out of stack, and it looks at the
+ *     clock every few guesses, so it stops soon after the deadline.
+ *
+ *  A Solver can be pointed at one board after another with reset,
+ *     keeping its arrays, propagator and trail while the size stays
+ *     the same, so solving a stream of boards makes no garbage.
+ *     local() hands out one such solver per thread, which suits
+ *     pools of platform threads; code running each task on a new
+ *     thread should keep its own pool of solvers instead.
  */
 
 // Necessary imports
-import java.util.*;
+import java.time.Duration;
 
-public class Solver {
+public class Solver implements SudokuSolver {
+
+    // Guesses between looks at the clock, less one
+    private static final int CHECK_EVERY = 63;
+
+    // Longest timeout honored; deadlines are compared by their difference
+    //   from System.nanoTime(), so one further off would seem past
+    private static final Duration LONGEST = Duration.ofNanos(Long.MAX_VALUE / 2);
+
+    // Solver reused by each thread
+    private static final ThreadLocal<Solver> LOCAL = ThreadLocal.withInitial(Solver::new);
 
     // Instance variables
-    private Set<Integer>[][] options;     // Matrix of valid number sets for each spot on the board
+    private Geometry geo;                 // Shape of the board
+    private long[] options;               // Candidate mask for each spot on the board, indexed r*size+c
+    private long[] work;                  // Copy of options propagated and searched in place
     private int[][] board;                // Matrix of numbers on the board
-    private Set<Integer>[][] tempOptions; // Temporary options matrix for solving by recursion
+    private long[] rowMask;               // Numbers placed in each row
+    private long[] colMask;               // Numbers placed in each column
+    private long[] blockMask;             // Numbers placed in each block
     private boolean solved;               // Indicator variable for whether or not board is solved
+    private SolverStats stats = new SolverStats();  // Work counted during the last solve
+
+    // Stack of the search with a deadline, made on its first use
+    private int[] spot;                   // Spot guessed at each depth
+    private long[] untried;               // Options of that spot not yet guessed
+    private int[] marks;                  // Trail length before the guesses at each depth
+    private long[] first;                 // First solution found
+
+    // Propagation state for the size of the board, kept across resets
+    private Propagator prop;              // Worklist propagator for single guesses
+    private Trail trail;                  // Undo trail of the search
+    private PropagationKernel kernel;     // Kernel for whole board propagation
 
     // Solver constructor
     public Solver(int[][] b) {
+        reset(b);
+    }
+
+    // Solver constructor for a solver given its board later by reset
+    public Solver() {
+    }
+
+    // Returns this thread's solver reset to a board; it is only good
+    //   until the next call to local on the same thread
+    public static Solver local(int[][] b) {
+        return LOCAL.get().reset(b);
+    }
+
+    // Points the solver at a new board, to be solved in place, reusing
+    //   every array when the board is the same size as the last one
+    public Solver reset(int[][] b) {
+        if (geo == null || b.length != geo.getSize()) {
+            geo = Geometry.of(b);
+            options = new long[geo.getCells()];
+            work = new long[geo.getCells()];
+            rowMask = new long[geo.getSize()];
+            colMask = new long[geo.getSize()];
+            blockMask = new long[geo.getSize()];
+            spot = null;
+            prop = new Propagator(geo);
+            trail = new Trail(geo);
+            kernel = geo.newKernel(prop);
+        }
         board = b;
-        options = new TreeSet[9][9];
-        tempOptions = new TreeSet[9][9];
         initializeOptions();
         solved = false;
+        return this;
     }
 
     // Standard accessor methods
     public int[][] getBoard() { return board; }
+    public Geometry getGeometry() { return geo; }
+    public SolverStats getStats() { return stats; }
 
     // Initializes the options matrix
     public void initializeOptions() {
-        TreeSet<Integer> initial = new TreeSet<Integer>();
-        for (int i = 1; i <= 9; i++)
-            initial.add(i);
-
-        for (int r = 0; r < board.length; r++)
-            for (int c = 0; c < board[0].length; c++) {
-                options[r][c] = new TreeSet<Integer>();
-                tempOptions[r][c] = new TreeSet<Integer>();
-                if (board[r][c] == 0)
-                    options[r][c].addAll(initial);
-                else
-                    options[r][c].add(board[r][c]);
+        for (int i = 0; i < geo.getSize(); i++) {
+            rowMask[i] = 0;
+            colMask[i] = 0;
+            blockMask[i] = 0;
+        }
+        for (int i = 0; i < geo.getCells(); i++) {
+            int num = board[geo.row[i]][geo.col[i]];
+            if (num == 0) {
+                options[i] = geo.getAll();
+            } else {
+                options[i] = Geometry.bit(num);
+                rowMask[geo.row[i]] |= options[i];
+                colMask[geo.col[i]] |= options[i];
+                blockMask[geo.block[i]] |= options[i];
             }
+        }
     }
 
     // Prints the current board from the options, for testing
-    public void printBoard(Set<Integer>[][] opt) {
-        for (int r = 0; r < opt.length; r++) {
-            for (int c = 0; c < opt[0].length; c++)
-                if (opt[r][c].size() == 1)
-                    System.out.print(opt[r][c].toArray()[0] + " ");
-                else
-                    System.out.print("0 ");
+    public void printBoard() {
+        printBoard(options);
+    }
+
+    // Prints the board held by a candidate array, for testing
+    public static void printBoard(long[] opt) {
+        int size = Geometry.forCells(opt.length).getSize();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++)
+                System.out.print((Geometry.isSingle(opt[r * size + c]) ? Geometry.digit(opt[r * size + c]) : 0) + " ");
             System.out.println();
         }
         System.out.println();
@@ -58,291 +136,395 @@ public class Solver {
 
     // Solves the current board and returns it
     public int[][] solve() {
-        if (isSolved()) return board;
-        solveSimple();
-        if (isSolved()) return board;
-        solveRecursion();
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        long start = System.nanoTime();
+        stats.reset();
+
+        if (!isSolved()) {
+            solveSimple();
+            if (!isSolved())
+                solveRecursion();
+        }
+
+        stats.nanos = System.nanoTime() - start;
+        stats.record("BACKTRACK", isSolved(), event);
         return board;
     }
 
+    // Solves the current board unless the deadline, a System.nanoTime()
+    //   value, passes first, looking on for a second solution so the
+    //   result tells whether the solution is unique
+    public SolveResult solve(long deadline) {
+        try {
+            return solve(deadline, false);
+        } catch (InterruptedException e) {
+            throw new AssertionError("Interrupts are only seen when asked for", e);
+        }
+    }
+
+    // Solves the current board like solve(deadline), giving up once the timeout passes
+    public SolveResult solve(Duration timeout) {
+        return solve(deadlineAfter(timeout));
+    }
+
+    // Solves the current board like solve(deadline), also stopping
+    //   if the thread is interrupted
+    public SolveResult solveInterruptibly(long deadline) throws InterruptedException {
+        return solve(deadline, true);
+    }
+
+    // Solves the current board like solveInterruptibly(deadline), giving up once the timeout passes
+    public SolveResult solveInterruptibly(Duration timeout) throws InterruptedException {
+        return solveInterruptibly(deadlineAfter(timeout));
+    }
+
+    // Returns the System.nanoTime() value a timeout from now
+    private static long deadlineAfter(Duration timeout) {
+        Duration d = timeout.isNegative() ? Duration.ZERO : timeout.compareTo(LONGEST) > 0 ? LONGEST : timeout;
+        return System.nanoTime() + d.toNanos();
+    }
+
+    // Propagates, searches and fills in the board for the deadline solves
+    private SolveResult solve(long deadline, boolean interruptible) throws InterruptedException {
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        long start = System.nanoTime();
+        stats.reset();
+
+        SolveResult result;
+        long[] opt = copyOptions();
+        stats.propagations++;
+        if (!kernel.propagate(opt))
+            result = SolveResult.UNSOLVABLE;
+        else
+            result = search(opt, deadline, interruptible);
+        if (result.isFilled()) {
+            for (int i = 0; i < geo.getCells(); i++)
+                place(i, Geometry.digit(first[i]));
+            solved = true;
+        }
+
+        stats.nanos = System.nanoTime() - start;
+        stats.record("BACKTRACK", result.isFilled(), event);
+        return result;
+    }
+
+    // Guesses at the spot with the fewest options like attemptSolve, but
+    //   from a stack of depths instead of recursion, keeping the first
+    //   solution in first and stopping at the second or at the deadline,
+    //   which still hands back the first solution if there is one
+    private SolveResult search(long[] opt, long deadline, boolean interruptible) throws InterruptedException {
+        int cells = geo.getCells();
+        if (spot == null) {
+            spot = new int[cells];
+            untried = new long[cells];
+            marks = new int[cells];
+            first = new long[cells];
+        }
+        trail.clear();
+
+        int found = 0, depth = 0, guesses = 0;
+        boolean enter = true;
+        while (depth >= 0) {
+            if (enter) {
+                stats.nodes++;
+                stats.reach(depth);
+                int i = mostConstrained(opt);
+                if (i < 0) {
+                    if (++found > 1)
+                        return SolveResult.MULTIPLE;
+                    System.arraycopy(opt, 0, first, 0, cells);
+                    enter = false;
+                    if (--depth >= 0)
+                        trail.undo(opt, marks[depth]);
+                    continue;
+                }
+                spot[depth] = i;
+                untried[depth] = opt[i];
+                marks[depth] = trail.mark();
+            }
+
+            if (untried[depth] == 0) {
+                enter = false;
+                if (--depth >= 0) {
+                    trail.undo(opt, marks[depth]);
+                    stats.backtracks++;
+                }
+                continue;
+            }
+            if ((++guesses & CHECK_EVERY) == 0) {
+                if (System.nanoTime() - deadline >= 0)
+                    return found == 1 ? SolveResult.SOLVED_UNVERIFIED : SolveResult.TIMED_OUT;
+                if (interruptible && Thread.interrupted())
+                    throw new InterruptedException("Solve interrupted");
+            }
+
+            long bit = untried[depth] & -untried[depth];
+            untried[depth] ^= bit;
+            stats.guesses++;
+            stats.propagations++;
+            enter = prop.assign(opt, spot[depth], bit, trail);
+            if (enter)
+                depth++;
+            else {
+                trail.undo(opt, marks[depth]);
+                stats.backtracks++;
+            }
+        }
+        return found == 1 ? SolveResult.SOLVED : SolveResult.UNSOLVABLE;
+    }
+
     // Indicates whether or not the board is solved
     public boolean isSolved() {
         return isSolved(board, options);
     }
 
     // Checks to see whether or not the given board is solved
-    public boolean isSolved(int[][] b, Set<Integer>[][] opt) {
-        // checks if no 0's in board and all sets only contain one item
+    public static boolean isSolved(int[][] b, long[] opt) {
+        // checks if no 0's in board and all masks only contain one number
         for (int[] arr : b)
             for (int el : arr)
                 if (el == 0)
                     return false;
-        for (Set<Integer>[] arr : opt)
-            for (Set<Integer> el : arr)
-                if (el.size() != 1)
-                    return false;
+        for (long el : opt)
+            if (!Geometry.isSingle(el))
+                return false;
         return true;
     }
 
-    // Attempts to solve board through elimination and deduction
+    // Attempts to solve board through constraint propagation, stopping
+    //   exactly when nothing more can be removed or placed
     public void solveSimple() {
-        int i = 0;
-        while (!isSolved() && i < 20) {
-            elimRows();
-            elimCols();
-            elimBlocks();
-            i++;
-        }
+        long[] opt = copyOptions();
+        stats.propagations++;
+        if (!kernel.propagate(opt))
+            return;
+        for (int i = 0; i < geo.getCells(); i++)
+            if (board[geo.row[i]][geo.col[i]] == 0) {
+                options[i] = opt[i];
+                if (Geometry.isSingle(opt[i]))
+                    place(i, Geometry.digit(opt[i]));
+            }
+    }
+
+    // Copies the options into the work array and returns it
+    private long[] copyOptions() {
+        System.arraycopy(options, 0, work, 0, work.length);
+        return work;
+    }
+
+    // Places a number in a spot, records it in the unit masks
+    //   and takes it out of the options of every open peer
+    private void place(int i, int num) {
+        long b = Geometry.bit(num);
+        board[geo.row[i]][geo.col[i]] = num;
+        options[i] = b;
+        rowMask[geo.row[i]] |= b;
+        colMask[geo.col[i]] |= b;
+        blockMask[geo.block[i]] |= b;
+        for (int p : geo.peers[i])
+            if (board[geo.row[p]][geo.col[p]] == 0)
+                options[p] &= ~b;
+    }
+
+    // Removes the numbers in rem from an open spot, placing
+    //   the last remaining number if only one is left
+    private void eliminate(int i, long rem) {
+        if (board[geo.row[i]][geo.col[i]] != 0) return;
+        options[i] &= ~rem;
+        if (Geometry.isSingle(options[i]))
+            place(i, Geometry.digit(options[i]));
     }
 
     // Traverses entire board and eliminates entries from options
     //   matrix by checking rows for placed numbers
     public void elimRows() {
-        for (int r = 0; r < board.length; r++) {
-            Set<Integer> rem = getRow(r);
-            for (int c = 0; c < board[0].length; c++) {
-                if (options[r][c].size() != 1) {
-                    options[r][c].removeAll(rem);
-                    if (options[r][c].size() == 1) {
-                        board[r][c] = (int) options[r][c].toArray()[0];
-                        rem.add(board[r][c]);
-                    }
-                }
-            }
-        }
+        for (int i = 0; i < geo.getCells(); i++)
+            eliminate(i, rowMask[geo.row[i]]);
     }
 
     // Traverses entire board and eliminates entries from options
     //   matrix by checking columns for placed numbers
     public void elimCols() {
-        for (int c = 0; c < board[0].length; c++) {
-            Set<Integer> rem = getCol(c);
-            for (int r = 0; r < board.length; r++) {
-                if (options[r][c].size() != 1) {
-                    options[r][c].removeAll(rem);
-                    if (options[r][c].size() == 1) {
-                        board[r][c] = (int) options[r][c].toArray()[0];
-                        rem.add(board[r][c]);
-                    }
-                }
-            }
-        }
+        for (int c = 0; c < geo.getSize(); c++)
+            for (int i : geo.units[geo.getSize() + c])
+                eliminate(i, colMask[c]);
     }
 
     // Traverses entire board and eliminates entries from options
     //   matrix by checking set blocks for placed numbers
     public void elimBlocks() {
-        for (int rowb = 0; rowb < 3; rowb++)
-            for (int colb = 0; colb < 3; colb++) {
-                Set<Integer> rem = getBlock(rowb, colb);
-                for (int r = rowb * 3; r < rowb * 3 + 3; r++)
-                    for (int c = colb * 3; c < colb * 3 + 3; c++)
-                        if (options[r][c].size() != 1) {
-                            options[r][c].removeAll(rem);
-                            if (options[r][c].size() == 1) {
-                                board[r][c] = (int) options[r][c].toArray()[0];
-                                rem.add(board[r][c]);
-                            }
-                        }
-            }
+        for (int b = 0; b < geo.getSize(); b++)
+            for (int i : geo.units[2 * geo.getSize() + b])
+                eliminate(i, blockMask[b]);
     }
 
-    // Returns a set of all of the numbers within a single row
-    public Set<Integer> getRow(int row) {
-        Set<Integer> rem = new TreeSet<Integer>();
-        for (int col = 0; col < board[0].length; col++)
-            if (board[row][col] != 0)
-                rem.add(board[row][col]);
-        return rem;
-    }
+    // Returns a mask of all of the numbers within a single row
+    public long getRow(int row) { return rowMask[row]; }
 
-    // Returns a set of all of the numbers within a single column
-    public Set<Integer> getCol(int col) {
-        Set<Integer> rem = new TreeSet<Integer>();
-        for (int row = 0; row < board.length; row++)
-            if (board[row][col] != 0)
-                rem.add(board[row][col]);
-        return rem;
-    }
+    // Returns a mask of all of the numbers within a single column
+    public long getCol(int col) { return colMask[col]; }
 
-    // Returns a set of all of the numbers within a single block
-    public Set<Integer> getBlock(int row, int col) {
-        Set<Integer> rem = new TreeSet<Integer>();
-        for (int r = row * 3; r < row * 3 + 3; r++)
-            for (int c = col * 3; c < col * 3 + 3; c++)
-                if (board[r][c] != 0)
-                    rem.add(board[r][c]);
-        return rem;
-    }
+    // Returns a mask of all of the numbers within a single block
+    public long getBlock(int row, int col) { return blockMask[row * geo.getBox() + col]; }
 
     // Attempts to solve the board using recursion and guessing
     public void solveRecursion() {
-        for(int r = 0; r < board.length; r++)
-            for(int c = 0; c < board[0].length; c++)
-                tempOptions[r][c].clear();
-
-        attemptSolve(0, 0, options);
-    }
-
-    // Recursively guesses and checks whether a possible number
-    //   leads to a solvable sudoku board
-    public void attemptSolve(int r, int c, Set<Integer>[][] opt) {
-        Set<Integer>[][] newOpt = new TreeSet[9][9];
-        Iterator<Integer> it;
-        if (opt[r][c].size() != 1) {
-            while (!opt[r][c].isEmpty() && !solved) {
-                for (int rw = 0; rw < opt.length; rw++)
-                    for (int cl = 0; cl < opt[0].length; cl++) {
-                        tempOptions[rw][cl].clear();
-                        it = opt[rw][cl].iterator();
-                        while (it.hasNext())
-                            tempOptions[rw][cl].add(it.next());
-                    }
-                int guess = (int) opt[r][c].toArray()[0];
-                tempOptions[r][c].clear();
-                tempOptions[r][c].add(guess);
-                for (int i = 0; i < 5; i++) {
-                    elimRows(opt);
-                    elimCols(opt);
-                    elimBlocks(opt);
-                }
-                if (isSolvable(tempOptions)) {
-                    for (int rw = 0; rw < opt.length; rw++)
-                        for (int cl = 0; cl < opt[0].length; cl++) {
-                            newOpt[rw][cl] = new TreeSet<>();
-                            it = tempOptions[rw][cl].iterator();
-                            while (it.hasNext())
-                                newOpt[rw][cl].add(it.next());
-                        }
-                    if (c == opt[0].length - 1)
-                        attemptSolve(r + 1, 0, newOpt);
-                    else
-                        attemptSolve(r, c + 1, newOpt);
-
-                    if (!solved) {
-                        opt[r][c].remove(new Integer(guess));
-                        if (opt[r][c].isEmpty())
-                            return;
-                    }
-                } else {
-                    opt[r][c].removeAll(tempOptions[r][c]);
-                    if (opt[r][c].isEmpty())
-                        return;
-                }
-            }
-        } else if (r != opt.length - 1 || c != opt[0].length - 1) {
-            if (c == opt[0].length - 1)
-                attemptSolve(r + 1, 0, opt);
-            else
-                attemptSolve(r, c + 1, opt);
+        long[] opt = copyOptions();
+        stats.propagations++;
+        if (!kernel.propagate(opt) || !attemptSolve(opt))
+            return;
+        for (int i = 0; i < geo.getCells(); i++)
+            place(i, Geometry.digit(opt[i]));
+        solved = true;
+    }
+
+    // Recursively guesses at the spot with the fewest options and checks
+    //   whether a possible number leads to a solvable sudoku board, leaving
+    //   the solution in opt, which must already be propagated to its fixpoint.
+    //   Each guess is made in place on opt and taken back from the trail
+    //   if it fails, so no board is copied along the way
+    public boolean attemptSolve(long[] opt) {
+        trail.clear();
+        return attemptSolve(opt, 0, prop, trail);
+    }
+
+    // Guesses at the given depth of the search, counting the work done
+    private boolean attemptSolve(long[] opt, int depth, Propagator prop, Trail trail) {
+        stats.nodes++;
+        stats.reach(depth);
+        int i = mostConstrained(opt);
+        if (i < 0)
+            return true;
+
+        int mark = trail.mark();
+        for (long rem = opt[i]; rem != 0; rem &= rem - 1) {
+            stats.guesses++;
+            stats.propagations++;
+            if (prop.assign(opt, i, rem & -rem, trail) && attemptSolve(opt, depth + 1, prop, trail))
+                return true;
+            trail.undo(opt, mark);
+            stats.backtracks++;
         }
-        if (!solved && r == opt.length - 1 && c == opt[0].length - 1) {
-            for (int rw = 0; rw < opt.length; rw++)
-                for (int cl = 0; cl < opt[0].length; cl++) {
-                    board[rw][cl] = (int) tempOptions[rw][cl].toArray()[0];
-                    options[rw][cl].clear();
-                    options[rw][cl].addAll(tempOptions[rw][cl]);
-                }
-            solved = true;
+        return false;
+    }
+
+    // Counts the solutions of the current board, stopping once limit are found
+    public int countSolutions(int limit) {
+        return countSolutions(toOptions(board), limit);
+    }
+
+    // Counts the solutions of a candidate board, stopping once limit are found
+    public static int countSolutions(long[] opt, int limit) {
+        return countSolutions(opt, limit, Long.MAX_VALUE);
+    }
+
+    // Counts the solutions of a candidate board, stopping once limit are found,
+    //   or returns -1 if that takes more than budget guesses
+    public static int countSolutions(long[] opt, int limit, long budget) {
+        long[] start = opt.clone();
+        long[] left = {budget};
+        if (!reduce(start))
+            return 0;
+        Geometry geo = Geometry.forCells(opt.length);
+        Trail trail = geo.trail();
+        trail.clear();
+        int found = countSolutions(start, limit, 0, left, geo.propagator(), trail);
+        return left[0] < 0 ? -1 : found;
+    }
+
+    // Recursively guesses at the most constrained spot, adding each
+    //   solution reached to found until it reaches the limit or the
+    //   guesses left run out, undoing every guess from the trail
+    private static int countSolutions(long[] opt, int limit, int found, long[] left,
+                                      Propagator prop, Trail trail) {
+        int i = mostConstrained(opt);
+        if (i < 0)
+            return found + 1;
+
+        int mark = trail.mark();
+        for (long rem = opt[i]; rem != 0 && found < limit; rem &= rem - 1) {
+            if (--left[0] < 0)
+                return found;
+            if (prop.assign(opt, i, rem & -rem, trail))
+                found = countSolutions(opt, limit, found, left, prop, trail);
+            trail.undo(opt, mark);
         }
+        return found;
+    }
+
+    // Indicates whether the current board has exactly one solution
+    public boolean hasUniqueSolution() {
+        return countSolutions(2) == 1;
     }
 
     // Prints out the possible options for a space in a list, for testing
-    public static void toList(Set<Integer> lst) {
-        Iterator<Integer> it = lst.iterator();
-        while (it.hasNext())
-            System.out.print(it.next() + " ");
+    public static void toList(long mask) {
+        for (long rem = mask; rem != 0; rem &= rem - 1)
+            System.out.print(Geometry.digit(rem & -rem) + " ");
         System.out.println();
     }
 
     // Indicates whether or not a board is solvable by checking
     //   if there are any spaces where there cannot be any number
-    public boolean isSolvable(Set<Integer>[][] opt) {
-        for (Set<Integer>[] rows : opt)
-            for (Set<Integer> el : rows)
-                if (el.isEmpty())
-                    return false;
+    public static boolean isSolvable(long[] opt) {
+        for (long el : opt)
+            if (el == 0)
+                return false;
         return true;
     }
 
-    // Traverses entire board and eliminates entries from options
-    //   matrix by checking rows for placed numbers through given options board
-    public void elimRows(Set<Integer>[][] opt) {
-        for (int r = 0; r < tempOptions.length; r++) {
-            for (int c = 0; c < tempOptions[0].length; c++) {
-                Set<Integer> rem = getRow(r, c, tempOptions);
-                if (tempOptions[r][c].size() > 0) {
-                    tempOptions[r][c].removeAll(rem);
-                    if (tempOptions[r][c].size() == 1) {
-                        rem.addAll(tempOptions[r][c]);
-                    }
-                }
-            }
+    // Indicates whether a fully decided board has no number
+    //   repeated in any row, column or block
+    public static boolean isConsistent(long[] opt) {
+        Geometry geo = Geometry.forCells(opt.length);
+        for (int[] unit : geo.units) {
+            long seen = 0;
+            for (int i : unit)
+                seen |= opt[i];
+            if (seen != geo.getAll())
+                return false;
         }
+        return true;
     }
 
-    // Traverses entire board and eliminates entries from options
-    //   matrix by checking columns for placed numbers through given options board
-    public void elimCols(Set<Integer>[][] opt) {
-        for (int c = 0; c < tempOptions[0].length; c++) {
-            for (int r = 0; r < tempOptions.length; r++) {
-                Set<Integer> rem = getCol(c, r, tempOptions);
-                if (tempOptions[r][c].size() > 0) {
-                    tempOptions[r][c].removeAll(rem);
-                    if (tempOptions[r][c].size() == 1) {
-                        rem.add((int) tempOptions[r][c].toArray()[0]);
-                    }
-                }
-            }
+    // Builds a candidate board from a matrix of numbers, leaving
+    //   open spots with every number possible
+    public static long[] toOptions(int[][] b) {
+        Geometry geo = Geometry.of(b);
+        long[] opt = new long[geo.getCells()];
+        for (int i = 0; i < opt.length; i++) {
+            int num = b[geo.row[i]][geo.col[i]];
+            opt[i] = num == 0 ? geo.getAll() : Geometry.bit(num);
         }
+        return opt;
     }
 
-    // Traverses entire board and eliminates entries from options
-    //   matrix by checking blocks for placed numbers through given options board
-    public void elimBlocks(Set<Integer>[][] opt) {
-        for (int rowb = 0; rowb < 3; rowb++)
-            for (int colb = 0; colb < 3; colb++) {
-                for (int r = rowb * 3; r < rowb * 3 + 3; r++)
-                    for (int c = colb * 3; c < colb * 3 + 3; c++)
-                        if (tempOptions[r][c].size() > 0) {
-                            Set<Integer> rem = getBlock(rowb, colb, r, c, tempOptions);
-                            tempOptions[r][c].removeAll(rem);
-                            if (tempOptions[r][c].size() == 1) {
-                                rem.add((int) tempOptions[r][c].toArray()[0]);
-                            }
-                        }
+    // Returns the open spot with the fewest options, or -1 if every spot is decided
+    public static int mostConstrained(long[] opt) {
+        int best = -1, fewest = Integer.MAX_VALUE;
+        for (int i = 0; i < opt.length; i++) {
+            int n = Long.bitCount(opt[i]);
+            if (n > 1 && n < fewest) {
+                best = i;
+                fewest = n;
+                if (n == 2) break;
             }
+        }
+        return best;
     }
 
-    // Returns a set of all of the numbers within a single row for a given options matrix
-    public Set<Integer> getRow(int row, int c, Set<Integer>[][] opt) {
-        Set<Integer> rem = new TreeSet<Integer>();
-        for (int col = 0; col < opt[0].length; col++)
-            if (col != c)
-                if (opt[row][col].size() == 1)
-                    rem.addAll(opt[row][col]);
-        return rem;
-    }
-
-    // Returns a set of all of the numbers within a single column for a given options matrix
-    public Set<Integer> getCol(int col, int r, Set<Integer>[][] opt) {
-        Set<Integer> rem = new TreeSet<Integer>();
-        for (int row = 0; row < opt.length; row++)
-            if (row != r)
-                if (opt[row][col].size() == 1)
-                    rem.addAll(opt[row][col]);
-        return rem;
+    // Propagates a candidate board to its fixpoint, returning
+    //   whether it is still solvable
+    public static boolean reduce(long[] opt) {
+        return Geometry.forCells(opt.length).kernel().propagate(opt);
     }
 
-    // Returns a set of all of the numbers within a single block for a given options matrix
-    public Set<Integer> getBlock(int row, int col, int rw, int cl, Set<Integer>[][] opt) {
-        Set<Integer> rem = new TreeSet<Integer>();
-        for (int r = row * 3; r < row * 3 + 3; r++)
-            for (int c = col * 3; c < col * 3 + 3; c++)
-                if (r != rw && c != cl)
-                    if (opt[r][c].size() == 1)
-                        rem.addAll(opt[r][c]);
-        return rem;
+    // Decides a spot of a candidate board already at its fixpoint and
+    //   propagates the change, returning whether it is still solvable
+    public static boolean assign(long[] opt, int i, long bit) {
+        return Geometry.forCells(opt.length).propagator().assign(opt, i, bit);
     }
 
-}
\ No newline at end of file
+}
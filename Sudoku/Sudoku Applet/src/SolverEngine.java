@@ -0,0 +1,45 @@
+/**
+ *  SolverEngine names the available solving engines
+ *     and creates a solver of that kind for a board
+ */
+
+public enum SolverEngine {
+
+    BACKTRACK,  // Propagation followed by most constrained first guessing
+    DLX,        // Dancing Links exact cover with most constrained column first
+    PARALLEL,   // Most constrained first guessing split over the common ForkJoinPool
+    CACHED;     // Elimination and guessing behind a cache keyed on the canonical form
+
+    // Creates a solver of this kind for the given board
+    public SudokuSolver newSolver(int[][] b) {
+        switch (this) {
+            case DLX:
+                return new DlxSolver(b);
+            case PARALLEL:
+                return new ParallelSolver(b);
+            case CACHED:
+                return new CachedSolver(b);
+            default:
+                return new Solver(b);
+        }
+    }
+
+    // Returns a solver of this kind for the given board, reusing this
+    //   thread's solver when the engine can; it is only good until the
+    //   next call on the same thread
+    public SudokuSolver localSolver(int[][] b) {
+        return this == BACKTRACK ? Solver.local(b) : newSolver(b);
+    }
+
+    // Returns a solver of this kind for the given board, reusing the
+    //   given solver when the engine can
+    public SudokuSolver solverFor(int[][] b, Solver reusable) {
+        return this == BACKTRACK ? reusable.reset(b) : newSolver(b);
+    }
+
+    // Returns the engine with the given name, ignoring case
+    public static SolverEngine forName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+
+}
@@ -0,0 +1,122 @@
+/**
+ *  SolverStats counts the work done by a solve: search nodes
+ *     visited, guesses, backtracks, propagation passes, the
+ *     deepest guess and the wall time, and whether the answer
+ *     came from a cache instead of a search
+ *
+ *  Engines count into plain fields of their own instance and
+ *     record it once when the solve ends, which adds it to the
+ *     process wide totals and emits a SolveEvent to JFR
+ */
+
+// Necessary imports
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SolverStats {
+
+    // Totals over every solve recorded in this process
+    private static final LongAdder SOLVES = new LongAdder();
+    private static final LongAdder NODES = new LongAdder();
+    private static final LongAdder GUESSES = new LongAdder();
+    private static final LongAdder BACKTRACKS = new LongAdder();
+    private static final LongAdder PROPAGATIONS = new LongAdder();
+    private static final LongAccumulator MAX_DEPTH = new LongAccumulator(Math::max, 0);
+    private static final LongAdder NANOS = new LongAdder();
+    private static final LongAdder CACHE_HITS = new LongAdder();
+
+    // Instance variables
+    long nodes;           // Search nodes visited
+    long guesses;         // Numbers tried in a spot
+    long backtracks;      // Guesses that led nowhere
+    long propagations;    // Propagation passes run
+    int maxDepth;         // Deepest nesting of guesses
+    long nanos;           // Wall time of the solve
+    boolean cacheHit;     // Whether the answer came from a cache
+
+    // Accessor methods
+    public long getNodes() { return nodes; }
+    public long getGuesses() { return guesses; }
+    public long getBacktracks() { return backtracks; }
+    public long getPropagations() { return propagations; }
+    public int getMaxDepth() { return maxDepth; }
+    public long getNanos() { return nanos; }
+    public boolean isCacheHit() { return cacheHit; }
+
+    // Clears every count
+    public void reset() {
+        nodes = guesses = backtracks = propagations = nanos = 0;
+        maxDepth = 0;
+        cacheHit = false;
+    }
+
+    // Notes that the search has reached the given depth
+    void reach(int depth) {
+        if (depth > maxDepth)
+            maxDepth = depth;
+    }
+
+    // Adds this solve to the process totals and emits it to JFR
+    void record(String engine, boolean solved, SolveEvent event) {
+        SOLVES.increment();
+        NODES.add(nodes);
+        GUESSES.add(guesses);
+        BACKTRACKS.add(backtracks);
+        PROPAGATIONS.add(propagations);
+        MAX_DEPTH.accumulate(maxDepth);
+        NANOS.add(nanos);
+        if (cacheHit)
+            CACHE_HITS.increment();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.engine = engine;
+            event.solved = solved;
+            event.nodes = nodes;
+            event.guesses = guesses;
+            event.backtracks = backtracks;
+            event.propagations = propagations;
+            event.maxDepth = maxDepth;
+            event.cacheHit = cacheHit;
+            event.commit();
+        }
+    }
+
+    // Returns the number of solves recorded in this process
+    public static long getSolves() { return SOLVES.sum(); }
+
+    // Returns the number of recorded solves answered from a cache
+    public static long getCacheHits() { return CACHE_HITS.sum(); }
+
+    // Returns the sums over every solve recorded in this process,
+    //   with the deepest guess of any of them
+    public static SolverStats totals() {
+        SolverStats s = new SolverStats();
+        s.nodes = NODES.sum();
+        s.guesses = GUESSES.sum();
+        s.backtracks = BACKTRACKS.sum();
+        s.propagations = PROPAGATIONS.sum();
+        s.maxDepth = (int) MAX_DEPTH.get();
+        s.nanos = NANOS.sum();
+        return s;
+    }
+
+    // Clears the process totals
+    public static void resetTotals() {
+        SOLVES.reset();
+        NODES.reset();
+        GUESSES.reset();
+        BACKTRACKS.reset();
+        PROPAGATIONS.reset();
+        MAX_DEPTH.reset();
+        NANOS.reset();
+        CACHE_HITS.reset();
+    }
+
+    // Returns the counts on one line
+    public String toString() {
+        return String.format("nodes=%d guesses=%d backtracks=%d propagations=%d maxDepth=%d time=%.3fms",
+                nodes, guesses, backtracks, propagations, maxDepth, nanos / 1e6);
+    }
+
+}
@@ -1,114 +1,177 @@
 /**
  * The actual Sudoku Board and game
+ *
+ * Boards are box*box spots on a side, 9x9 by default. Every puzzle
+ * is made from a seed, and the same seed, difficulty and size
+ * always make the same puzzle
  */
 
 // Necessary imports
-import java.util.*;
+import java.util.SplittableRandom;
 
 public class SudokuGame {
 
+    // Most guesses spent checking that blanking a spot keeps the puzzle unique
+    private static final long CHECK_GUESSES = 200;
+
     // Instance variables
     private int[][] board = new int[9][9];    // Matrix containing current Sudoku board
     private int[][] solved = new int[9][9];   // Matrix containing solved Sudoku board
-    private Solver solver;                    // Sudoku solver for checking a potential board
+    private int box = 3;                      // Spots along each side of a block
+    private long seed;                        // Seed the current game was made from
+    private PuzzlePool pool;                  // Pool of ready 9x9 puzzles, or null to generate on demand
+    private BoardState state = new BoardState(board);  // Numbers used in each unit of the board, shared with the view
 
     // SudokuGame constructor
     public SudokuGame(){
+        this(null);
+    }
+
+    // SudokuGame constructor taking new games from the given pool
+    public SudokuGame(PuzzlePool pool){
+        this.pool = pool;
         startNewGame("easy");
     }
 
     // Accessor methods
     public int[][] getBoard() { return board; }
     public int[][] getSolution() { return solved; }
+    public int getBoxSize() { return box; }
+    public long getSeed() { return seed; }
+    public BoardState getState() { return state; }
+
+    // Changes the board size for the games started from now on, leaving
+    //   an empty board of that size with the state following it
+    public void setBoxSize(int box){
+        int size = Geometry.of(box).getSize();
+        this.box = box;
+        board = new int[size][size];
+        solved = new int[size][size];
+        state.load(board);
+    }
 
-    // Starts a new Sudoku game
+    // Starts a new Sudoku game, from the pool if there is one
     public void startNewGame(String difficulty){
-        makeBoard();
-        int n, row, col;
-        if(difficulty.equals("easy"))
-            n = 40;
+        if(pool != null && box == 3)
+            startGame(pool.take(difficulty));
         else
-            n = 60;
+            startNewGame(difficulty, Seeds.next());
+    }
+
+    // Starts the game of a puzzle generated elsewhere, switching to
+    //   its board size if needed
+    public void startGame(Puzzle p){
+        int size = p.getBoard().length;
+        if(size != board.length)
+            setBoxSize(Geometry.forSize(size).getBox());
+        for(int r = 0; r < size; r++)
+            for(int c = 0; c < size; c++) {
+                board[r][c] = p.getBoard()[r][c];
+                solved[r][c] = p.getSolution()[r][c];
+            }
+        seed = p.getSeed();
+        state.load(board);
+    }
 
-        while(n > 0) {
-            do {
-                row = (int) (Math.random() * 9);
-                col = (int) (Math.random() * 9);
-            } while (board[row][col] == 0);
+    // Starts the game made from a seed, the same one every time
+    public void startNewGame(String difficulty, long seed){
+        SplittableRandom rnd = Seeds.of(seed);
+        this.seed = seed;
+        makeBoard(rnd);
+        removeNumbers(board, difficulty, rnd);
+        state.load(board);
+    }
 
-            board[row][col] = 0;
-            n--;
-        }
+    // Starts the game stored at an index of a puzzle store, switching
+    //   to the store's board size if needed
+    public void loadGame(PuzzleStore store, int index){
+        if(store.getGeometry().getBox() != box)
+            setBoxSize(store.getGeometry().getBox());
+        store.read(index, board, solved);
+        seed = store.getSeed(index);
+        state.load(board);
     }
 
-    // Generates a new Sudoku board
-    public void makeBoard() {
+    // Generates a 9x9 puzzle of the given difficulty without touching any game
+    public static Puzzle generate(String difficulty){
+        return generate(difficulty, 3);
+    }
+
+    // Generates a puzzle of the given difficulty and block size without touching any game
+    public static Puzzle generate(String difficulty, int box){
+        return generate(difficulty, box, Seeds.next());
+    }
+
+    // Generates the puzzle made from a seed, the same one startNewGame makes
+    public static Puzzle generate(String difficulty, int box, long seed){
+        SplittableRandom rnd = Seeds.of(seed);
+        int size = Geometry.of(box).getSize();
+        int[][] b = new int[size][size], sol = new int[size][size];
+        GridShuffler.fill(b, rnd);
+        for(int r = 0; r < b.length; r++)
+            sol[r] = b[r].clone();
+        removeNumbers(b, difficulty, rnd);
+        return new Puzzle(b, sol, difficulty, seed);
+    }
+
+    // Blanks spots of a full board in random order, keeping a number
+    //   whenever blanking it would allow a second solution, so the
+    //   puzzle always has exactly one solution; easy blanks 40 of
+    //   every 81 spots and hard 60
+    public static void removeNumbers(int[][] b, String difficulty){
+        removeNumbers(b, difficulty, Seeds.stream());
+    }
+
+    // Blanks spots like removeNumbers, in an order drawn from a stream
+    public static void removeNumbers(int[][] b, String difficulty, SplittableRandom rnd){
+        Geometry geo = Geometry.of(b);
+        int cells = geo.getCells(), n;
+        if(difficulty.equals("easy"))
+            n = cells * 40 / 81;
+        else
+            n = cells * 60 / 81;
+
+        int[] order = new int[cells];
+        for(int i = 0; i < cells; i++)
+            order[i] = i;
+        for(int i = cells - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1), t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
 
-        int n, num = 0, row, col;
-        boolean broken;
-
-        do {
-            broken = false;
-            for (int r = 0; r < board.length; r++)
-                for (int c = 0; c < board[0].length; c++)
-                    board[r][c] = 0;
-            n = 10;
-            while (n > 0) {
-                do {
-                    row = (int)(Math.random() * 9);
-                    col = (int)(Math.random() * 9);
-                } while (board[row][col] != 0);
-
-
-                Set<Integer> opt = valid(row,col);
-                if(opt.size() == 0) {
-                    broken = true;
-                    n = 0;
-                }
-                else{
-                    Iterator<Integer> it = opt.iterator();
-                    for(int i = 0; i <= (int)(Math.random()*opt.size())-1;i++)
-                        it.next();
-                    num = it.next();
-                }
-
-                board[row][col] = num;
+        // the puzzle stays unique exactly when no solution has a
+        //   different number in the blanked spot; a check that runs
+        //   out of guesses keeps the number, which is always safe
+        long[] opt = Solver.toOptions(b);
+        for(int i = 0; i < cells && n > 0; i++) {
+            int row = order[i] / geo.getSize(), col = order[i] % geo.getSize();
+            long given = Geometry.bit(b[row][col]);
+            opt[order[i]] = geo.getAll() & ~given;
+            if(Solver.countSolutions(opt, 1, CHECK_GUESSES) == 0) {
+                b[row][col] = 0;
                 n--;
-            }
-            if(!broken) {
-                solver = new Solver(board);
-                solver.solve();
-                broken = !solver.isSolved();
-            }
-        } while(broken);
+                opt[order[i]] = geo.getAll();
+            } else
+                opt[order[i]] = given;
+        }
+    }
+
+    // Generates a new Sudoku board by shuffling a solved seed board
+    public void makeBoard() {
+        makeBoard(Seeds.stream());
+    }
 
-        board = solver.getBoard();
+    // Generates a new Sudoku board from choices drawn from a stream
+    public void makeBoard(SplittableRandom rnd) {
+        GridShuffler.fill(board, rnd);
         for(int r = 0; r < board.length; r++)
             for(int c = 0; c < board[0].length; c++)
                 solved[r][c] = board[r][c];
     }
 
-    // Returns a set of all of the valid integers for a specific space
-    public Set<Integer> valid(int r, int c){
-
-        Set<Integer> set = new TreeSet<>(), res = new TreeSet<>();
-        for(int col = 0; col < board[0].length; col++)
-            if(board[r][col] != 0)
-                set.add(board[r][col]);
-        for(int row = 0; row < board[0].length; row++)
-            if(board[row][c] != 0)
-                set.add(board[row][c]);
-        for(int row = (r/3)*3; row < (r/3)*3+3; row++)
-            for(int col = (c/3)*3; col < (c/3)*3+3; col++)
-                if(board[row][col] != 0)
-                    set.add(board[row][col]);
-
-        for(int i = 1; i <= 9; i++)
-            res.add(i);
-        res.removeAll(set);
-
-        return res;
+    // Returns a mask of all of the valid numbers for a specific space
+    public long valid(int r, int c){
+        return state.legal(r, c);
     }
-}
-
-
+}
\ No newline at end of file
@@ -1,32 +1,58 @@
 /**
  *  Sudoku applet class
+ *
+ *  9x9 games come ready from a PuzzlePool. Larger boards can take
+ *     a second or more to generate, so they are made on a background
+ *     thread and shown once ready, keeping the event thread free
  */
 
 // Necessary imports
 import java.applet.Applet;
 import java.awt.*;
+import java.awt.font.GlyphVector;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
-import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class SudokuMain extends Applet implements KeyListener, MouseListener {
 
     // Instance variables
     private SudokuGame sG;          // SudokuGame for running the board
+    private PuzzlePool pool;        // Puzzles generated in the background for new games
+    private ExecutorService maker;  // Thread generating games larger than 9x9
+    private int asked;              // Number of the last new game asked for, so older ones are dropped
     private int[][] board;          // Matrix containing current Sudoku board
     private int[][] original;       // Matrix containing original Sudoku board
+    private BoardState state;       // Numbers used in each unit of the current board, the game's own
+    private HintEngine hints;       // Finds the next deducible placement for the Hint menu
+    private Hint shown;             // Hint currently shown on the board, or null
+    private DeadEndCheck deadEnd;   // Checks each move for a board that can no longer be solved
     private int myRow, myCol;       // Integers representing location of cursor
     private boolean selfSolve;      // Indicator variable for if the user solved the board themself or with the menu
-    private RedirectingMenuItem easy, hard, solve;   // Menu items for difficulty and solving
+    private RedirectingMenuItem easy, hard, solve, hint;   // Menu items for difficulty, solving and hints
+    private RedirectingMenuItem[] sizes;            // Menu items for each board size, indexed by block size
+    private Image buffer;           // Back buffer the board is drawn into
+    private Font digitFont;         // Font of the numbers for the current board size
+    private Font messageFont;       // Font of the message at the end of a game
+    private GlyphVector[] glyphs;   // Glyphs of each number in digitFont, indexed by number
 
     // Initializes applet and game
     public void init(){
 
-        sG = new SudokuGame();
+        pool = new PuzzlePool(2, 5, "easy", "hard");
+        maker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "SudokuMain-maker");
+            t.setDaemon(true);
+            return t;
+        });
+        sG = new SudokuGame(pool);
         board = sG.getBoard();
-        original = new int[9][9];
+        state = sG.getState();
+        hints = new HintEngine();
+        deadEnd = new DeadEndCheck();
         selfSolve = true;
         setOriginal();
 
@@ -41,7 +67,14 @@ public class SudokuMain extends Applet implements KeyListener, MouseListener {
         ng.add(easy = new RedirectingMenuItem(this,"Easy Game"));
         ng.add(hard = new RedirectingMenuItem(this,"Hard Game"));
 
+        Menu sz;
+        mb.add(sz = new Menu("Size"));
+        sizes = new RedirectingMenuItem[6];
+        for(int b = 3; b <= 5; b++)
+            sz.add(sizes[b] = new RedirectingMenuItem(this, b*b + "x" + b*b));
+
         mb.add(slv = new Menu("Help"));
+        slv.add(hint = new RedirectingMenuItem(this, "Hint"));
         slv.add(solve = new RedirectingMenuItem(this, "Solve"));
 
         frame.setMenuBar(mb);
@@ -49,72 +82,238 @@ public class SudokuMain extends Applet implements KeyListener, MouseListener {
         addKeyListener(this);
     }
 
+    // Stops generating puzzles when the applet is destroyed
+    public void destroy(){
+        pool.shutdown();
+        maker.shutdownNow();
+    }
+
     // Action method for receiving and handling menu interactions
     public boolean action(Event e, Object arg) {
+        Hint old = shown;
+        boolean wasDeadEnd = deadEnd.isDeadEnd();
+        shown = null;
         if (e.target == easy) {
-            sG.startNewGame("easy");
-            board = sG.getBoard();
-            selfSolve = true;
-            setOriginal();
+            newGame("easy", sG.getBoxSize());
         } else if (e.target == hard) {
-            sG.startNewGame("hard");
-            board = sG.getBoard();
-            selfSolve = true;
-            setOriginal();
+            newGame("hard", sG.getBoxSize());
+        } else if (e.target == hint) {
+            if (board.length != 9)
+                showStatus("Hints are only available on 9x9 boards");
+            else if ((shown = hints.next(board)) == null)
+                showStatus("No number can be placed without guessing");
+            else
+                showStatus("Hint: " + shown);
+            repaintMove(old, wasDeadEnd);
+            if(shown != null)
+                repaintSpot(shown.getRow(), shown.getCol());
+            return super.action(e,arg);
         } else if (e.target == solve) {
             board = sG.getSolution();
+            state.load(board);
+            deadEnd.clear();
             selfSolve = false;
             // lock the board
-        } else if (e.target instanceof MenuItem)
-            board[myRow][myCol] = Integer.parseInt(((MenuItem)e.target).getLabel());
-
+        } else if (sizeOf(e.target) != 0) {
+            newGame("easy", sizeOf(e.target));
+        } else if (e.target instanceof MenuItem) {
+            state.set(myRow, myCol, Integer.parseInt(((MenuItem)e.target).getLabel()));
+            checkMove();
+            repaintMove(old, wasDeadEnd);
+            return super.action(e,arg);
+        }
 
         repaint();
         return super.action(e,arg);
     }
 
-    // Paints the Sudoku board
+    // Starts a new game of a difficulty and block size; 9x9 games start
+    //   at once, larger ones are generated on the maker thread and
+    //   shown when ready unless another game was asked for meanwhile
+    private void newGame(String difficulty, int box){
+        int n = ++asked;
+        if(box == 3) {
+            if(sG.getBoxSize() != 3)
+                sG.setBoxSize(3);
+            sG.startNewGame(difficulty);
+            showGame();
+            return;
+        }
+        showStatus("Making a " + box*box + "x" + box*box + " " + difficulty + " game...");
+        maker.execute(() -> {
+            Puzzle p = SudokuGame.generate(difficulty, box);
+            EventQueue.invokeLater(() -> {
+                if(n != asked)
+                    return;
+                sG.startGame(p);
+                showStatus("");
+                showGame();
+            });
+        });
+    }
+
+    // Shows the game just started, with the cursor kept on the board
+    private void showGame(){
+        board = sG.getBoard();
+        shown = null;
+        deadEnd.clear();
+        selfSolve = true;
+        setOriginal();
+        repaint();
+    }
+
+    // Checks the board after a move at the selected spot and tells the
+    //   player as soon as it can no longer be solved
+    private void checkMove(){
+        boolean was = deadEnd.isDeadEnd();
+        if(deadEnd.check(board, myRow, myCol))
+            showStatus(deadEnd.describe(state.getGeometry()));
+        else if(was)
+            showStatus("");
+    }
+
+    // Returns the block size picked by a size menu item, or 0 for any other target
+    private int sizeOf(Object target){
+        for(int b = 3; b < sizes.length; b++)
+            if(target == sizes[b])
+                return b;
+        return 0;
+    }
+
+    // Paints straight over the old frame, skipping the clear that AWT
+    //   does first, which made the board flicker
+    public void update(Graphics g){
+        paint(g);
+    }
+
+    // Paints the Sudoku board by redrawing the part that needs it into
+    //   the back buffer and copying the buffer to the screen
     public void paint(Graphics g){
+        if(buffer == null)
+            buffer = createImage(400,400);
+        Rectangle clip = g.getClipBounds();
+        if(clip == null)
+            clip = new Rectangle(0,0,400,400);
+
+        Graphics2D bg = (Graphics2D) buffer.getGraphics();
+        bg.setClip(clip);
+        render(bg, clip);
+        bg.dispose();
+        g.drawImage(buffer,0,0,this);
+    }
+
+    // Draws the spots of the board that meet the clip, with the grid,
+    //   highlights and messages over them
+    private void render(Graphics2D g, Rectangle clip){
+        int n = board.length, box = state.getGeometry().getBox(), pad = Math.max(2, 90/n);
         g.setColor(Color.WHITE);
-        g.fillRect(0,0,400,400);
+        g.fillRect(clip.x,clip.y,clip.width,clip.height);
+
+        // shade the spot or unit of a dead end, and outline the move behind it
+        if(deadEnd.isDeadEnd()){
+            Geometry geo = state.getGeometry();
+            g.setColor(Color.PINK);
+            int[] spots = deadEnd.getSpot() >= 0 ? new int[]{deadEnd.getSpot()} : geo.units[deadEnd.getUnit()];
+            for(int i : spots)
+                g.fillRect(400*geo.col[i]/n,400*geo.row[i]/n,400/n+1,400/n+1);
+            if(deadEnd.getMoveRow() >= 0)
+                outline(g, deadEnd.getMoveRow(), deadEnd.getMoveCol(), Color.RED);
+        }
+
         g.setColor(Color.BLACK);
-        for(int i = 1; i <= 2; i++){
-            g.fillRect(0,133*i,400,5);
-            g.fillRect(133*i,0,5,400);
+        for(int i = 1; i < box; i++){
+            g.fillRect(0,400*i/box,400,5);
+            g.fillRect(400*i/box,0,5,400);
         }
-        for(int i = 1; i <= 8; i++){
-            g.fillRect(0,400*i/9,400,2);
-            g.fillRect(400*i/9,0,2,400);
+        for(int i = 1; i < n; i++){
+            g.fillRect(0,400*i/n,400,2);
+            g.fillRect(400*i/n,0,2,400);
         }
 
-        g.setFont(new Font("Courier New",Font.BOLD,35));
-
-        boolean complete = true;
-
-        for(int r = 0; r < board.length; r++)
-            for(int c = 0; c < board[0].length; c++)
+        // only the spots the clip reaches, with a margin for the lines
+        makeGlyphs(g, n);
+        int r0 = Math.max(0, (clip.y-5)*n/400), r1 = Math.min(n-1, (clip.y+clip.height+5)*n/400);
+        int c0 = Math.max(0, (clip.x-5)*n/400), c1 = Math.min(n-1, (clip.x+clip.width+5)*n/400);
+        for(int r = r0; r <= r1; r++)
+            for(int c = c0; c <= c1; c++)
                 if(board[r][c] != 0){
                     if(original[r][c] == 0)
                         g.setColor(Color.RED);
                     else
                         g.setColor(Color.BLACK);
-                    g.drawString(((Integer)board[r][c]).toString(),(400*c)/9+10,(400*(r+1))/9-10);
-                } else
-                    complete = false;
+                    g.drawGlyphVector(glyphs[board[r][c]],(400*c)/n+pad,(400*(r+1))/n-pad);
+                }
+
+        if(shown != null && board[shown.getRow()][shown.getCol()] == 0)
+            outline(g, shown.getRow(), shown.getCol(), Color.BLUE);
 
-        if(complete && selfSolve){
+        // the selected spot
+        g.setColor(Color.BLACK);
+        g.fillRect(myCol*400/n,myRow*400/n,4,400/n);
+        g.fillRect(myCol*400/n,myRow*400/n,400/n,4);
+        g.fillRect((myCol+1)*400/n,myRow*400/n,4,400/n);
+        g.fillRect(myCol*400/n,(myRow+1)*400/n,400/n,4);
+
+        if(isOver() && selfSolve){
             g.fillRect(27,117,346,136);
             g.setColor(Color.CYAN);
             g.fillRect(30,120,340,130);
             g.setColor(Color.BLACK);
+            g.setFont(digitFont);
             g.drawString("Congratulations!",32,150);
-            g.setFont(new Font("Courier New",Font.BOLD,15));
+            g.setFont(messageFont);
             g.drawString("Press ENTER to start another game",45,230);
         }
     }
 
+    // Draws a colored frame just inside a spot
+    private void outline(Graphics g, int r, int c, Color color){
+        int n = board.length, x = 400*c/n, y = 400*r/n;
+        g.setColor(color);
+        g.fillRect(x,y,400/n,3);
+        g.fillRect(x,y+400/n-3,400/n,3);
+        g.fillRect(x,y,3,400/n);
+        g.fillRect(x+400/n-3,y,3,400/n);
+    }
+
+    // Builds the fonts and the glyphs of every number for a board size,
+    //   keeping them until the size changes
+    private void makeGlyphs(Graphics2D g, int n){
+        if(glyphs != null && glyphs.length == n+1)
+            return;
+        digitFont = new Font("Courier New",Font.BOLD,n <= 9 ? 35 : 400/n*11/20);
+        messageFont = new Font("Courier New",Font.BOLD,15);
+        glyphs = new GlyphVector[n+1];
+        for(int d = 1; d <= n; d++)
+            glyphs[d] = digitFont.createGlyphVector(g.getFontRenderContext(), Integer.toString(d));
+    }
+
+    // Repaints one spot, with room for the lines and frames around it
+    private void repaintSpot(int r, int c){
+        int n = board.length;
+        repaint(400*c/n-5,400*r/n-5,400/n+11,400/n+11);
+    }
+
+    // Repaints what a move at the selected spot changed: the spot and
+    //   any hint it took away, or the whole board if a dead end or the
+    //   end of the game changes
+    private void repaintMove(Hint old, boolean wasDeadEnd){
+        if(wasDeadEnd || deadEnd.isDeadEnd() || isOver())
+            repaint();
+        else {
+            repaintSpot(myRow, myCol);
+            if(old != null)
+                repaintSpot(old.getRow(), old.getCol());
+        }
+    }
+
     // Sets the original board to the newly assigned board
     public void setOriginal(){
+        if(original == null || original.length != board.length) {
+            original = new int[board.length][board.length];
+            myRow = Math.min(myRow, board.length - 1);
+            myCol = Math.min(myCol, board.length - 1);
+        }
         for(int r = 0; r < board.length; r++)
             for(int c = 0; c < board[0].length; c++)
                 original[r][c] = board[r][c];
@@ -131,98 +330,28 @@ public class SudokuMain extends Applet implements KeyListener, MouseListener {
 
     // Handles the keyboard events
     public void keyPressed(KeyEvent e){
-        Set<Integer> keychain = getKeyChain(valid(myRow,myCol));
+        Hint old = shown;
+        boolean wasDeadEnd = deadEnd.isDeadEnd();
+        shown = null;
         if(!isOver()) {
+            int num = e.getKeyCode() - KeyEvent.VK_0;
             if(e.getKeyCode() == KeyEvent.VK_DELETE || e.getKeyCode() == 8) {
-                if(original[myRow][myCol] == 0 && board[myRow][myCol] != 0)
-                    board[myRow][myCol] = 0;
-            } else if(keychain.contains(e.getKeyCode())) {
-                switch(e.getKeyCode()) {
-                    case KeyEvent.VK_1:
-                        board[myRow][myCol] = 1;
-                        break;
-                    case KeyEvent.VK_2:
-                        board[myRow][myCol] = 2;
-                        break;
-                    case KeyEvent.VK_3:
-                        board[myRow][myCol] = 3;
-                        break;
-                    case KeyEvent.VK_4:
-                        board[myRow][myCol] = 4;
-                        break;
-                    case KeyEvent.VK_5:
-                        board[myRow][myCol] = 5;
-                        break;
-                    case KeyEvent.VK_6:
-                        board[myRow][myCol] = 6;
-                        break;
-                    case KeyEvent.VK_7:
-                        board[myRow][myCol] = 7;
-                        break;
-                    case KeyEvent.VK_8:
-                        board[myRow][myCol] = 8;
-                        break;
-                    case KeyEvent.VK_9:
-                        board[myRow][myCol] = 9;
-                        break;
-                    default:
-                        break;
-
+                if(original[myRow][myCol] == 0) {
+                    state.clear(myRow, myCol);
+                    checkMove();
                 }
+            } else if(original[myRow][myCol] == 0 && state.isLegal(myRow, myCol, num)) {
+                state.set(myRow, myCol, num);
+                checkMove();
             }
         } else {
             //to start new game
             if(e.getKeyCode() == KeyEvent.VK_ENTER) {
-                sG.startNewGame("easy");
-                board = sG.getBoard();
-                selfSolve = true;
-                setOriginal();
+                newGame("easy", sG.getBoxSize());
+                return;
             }
         }
-        repaint();
-    }
-
-    // Returns the possible keycodes for valid integers
-    public Set<Integer> getKeyChain(Set<Integer> val) {
-        Iterator<Integer> it = val.iterator();
-        Set<Integer> keychain = new TreeSet<>();
-        int num;
-        while(it.hasNext()){
-            num = it.next();
-            switch (num) {
-                case 1:
-                    keychain.add(KeyEvent.VK_1);
-                    break;
-                case 2:
-                    keychain.add(KeyEvent.VK_2);
-                    break;
-                case 3:
-                    keychain.add(KeyEvent.VK_3);
-                    break;
-                case 4:
-                    keychain.add(KeyEvent.VK_4);
-                    break;
-                case 5:
-                    keychain.add(KeyEvent.VK_5);
-                    break;
-                case 6:
-                    keychain.add(KeyEvent.VK_6);
-                    break;
-                case 7:
-                    keychain.add(KeyEvent.VK_7);
-                    break;
-                case 8:
-                    keychain.add(KeyEvent.VK_8);
-                    break;
-                case 9:
-                    keychain.add(KeyEvent.VK_9);
-                    break;
-                default:
-                    break;
-            }
-        }
-
-        return keychain;
+        repaintMove(old, wasDeadEnd);
     }
 
     // Necessary KeyListener methods
@@ -233,54 +362,30 @@ public class SudokuMain extends Applet implements KeyListener, MouseListener {
     public void mouseClicked(MouseEvent e){
 
         PopupMenu popupMenu = new PopupMenu("Options");
-        int x = e.getX(), y = e.getY(), r, c;
-        c = x*9/400;
-        r = y*9/400;
-
-        //paint the box
-        Graphics g = this.getGraphics();
-        g.setColor(Color.BLACK);
-        g.fillRect(c*400/9,r*400/9,4,400/9);
-        g.fillRect(c*400/9,r*400/9,400/9,4);
-        g.fillRect((c+1)*400/9,r*400/9,4,400/9);
-        g.fillRect(c*400/9,(r+1)*400/9,400/9,4);
+        int x = e.getX(), y = e.getY(), r, c, n = board.length;
+        c = x*n/400;
+        r = y*n/400;
+        if(r >= n || c >= n) return;
 
+        //move the box, repainting where it was and where it is
+        repaintSpot(myRow, myCol);
         myRow = r;
         myCol = c;
+        repaintSpot(r, c);
 
         if(board[r][c] != 0) return;
 
-        Set<Integer> options = valid(r,c);
-        Iterator<Integer> it = options.iterator();
-
-        while(it.hasNext())
-            popupMenu.add(new MenuItem(it.next().toString()));
+        for(long options = valid(r,c); options != 0; options &= options - 1)
+            popupMenu.add(new MenuItem(Integer.toString(Geometry.digit(options))));
 
         add(popupMenu);
 
         popupMenu.show(e.getComponent(),e.getX(),e.getY());
     }
 
-    // Returns a set of all of the valid integers for a specific space
-    public Set<Integer> valid(int r, int c){
-
-        Set<Integer> set = new TreeSet<>(), res = new TreeSet<>();
-        for(int col = 0; col < board[0].length; col++)
-            if(board[r][col] != 0)
-                set.add(board[r][col]);
-        for(int row = 0; row < board[0].length; row++)
-            if(board[row][c] != 0)
-                set.add(board[row][c]);
-        for(int row = (r/3)*3; row < (r/3)*3+3; row++)
-            for(int col = (c/3)*3; col < (c/3)*3+3; col++)
-                if(board[row][col] != 0)
-                    set.add(board[row][col]);
-
-        for(int i = 1; i <= 9; i++)
-            res.add(i);
-        res.removeAll(set);
-
-        return res;
+    // Returns a mask of all of the valid numbers for a specific space
+    public long valid(int r, int c){
+        return state.legal(r, c);
     }
 
     // Necessary MouseListener methods
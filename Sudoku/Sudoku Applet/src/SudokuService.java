@@ -0,0 +1,322 @@
+/**
+ *  SudokuService is a headless HTTP front end for the solver and
+ *     the puzzle generator, built on the JDK's own HTTP server
+ *
+ *  Usage: java SudokuService [port] [permits] [engine]
+ *
+ *  POST /solve      one puzzle per line, answered with one line
+ *                   each; a body of many lines is solved as a batch;
+ *                   ?timeout=ms bounds the whole request, writing
+ *                   back unchanged any puzzle not solved in time
+ *  GET  /generate   ?difficulty=easy|hard&size=9|16|25&count=n,
+ *                   answered with a puzzle line then its solution
+ *  GET  /stats      counters for the service and the solvers
+ *
+ *  Spots are written 1-9 then A-P for numbers above 9, with . or 0
+ *     for an open spot. At most permits requests do work at once;
+ *     any more are answered 503 rather than queued. Requests run
+ *     on virtual threads when the JVM has them (Java 21 and up)
+ *     and on a pool of permits threads otherwise. Each request
+ *     that holds a permit also holds one of permits reusable
+ *     solvers, since a new virtual thread would start without the
+ *     per-thread one.
+ */
+
+// Necessary imports
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SudokuService {
+
+    // Symbols used for the numbers 1 and up
+    private static final String SYMBOLS = "123456789ABCDEFGHIJKLMNOP";
+
+    // Tuning constants
+    private static final long WAIT_MILLIS = 50;           // Time a request waits for a permit
+    private static final int MAX_BATCH = 100000;          // Puzzles accepted in one request
+    private static final int MAX_COUNT = 100;             // Puzzles generated in one request
+
+    // Instance variables
+    private HttpServer server;            // Server the endpoints are bound to
+    private ExecutorService executor;     // Threads the requests run on
+    private Semaphore permits;            // Requests allowed to do work at once
+    private BlockingQueue<Solver> solvers;  // Reusable solvers, one for each permit
+    private SolverEngine engine;          // Kind of solver used for every puzzle
+    private PuzzlePool pool;              // Ready 9x9 puzzles for each difficulty
+    private LongAdder requests;           // Requests answered
+    private LongAdder rejected;           // Requests turned away for lack of a permit
+    private LongAdder solved;             // Puzzles solved
+    private LongAdder unsolvable;         // Puzzles with no solution
+    private LongAdder timedOut;           // Puzzles not solved before their request's timeout
+    private LongAdder generated;          // Puzzles generated
+
+    // SudokuService constructor, binding the endpoints without starting them
+    public SudokuService(int port, int permits, SolverEngine engine) throws IOException {
+        this.permits = new Semaphore(permits);
+        solvers = new ArrayBlockingQueue<>(permits);
+        for (int k = 0; k < permits; k++)
+            solvers.add(new Solver());
+        this.engine = engine;
+        pool = new PuzzlePool(2, 20, "easy", "hard");
+        requests = new LongAdder();
+        rejected = new LongAdder();
+        solved = new LongAdder();
+        unsolvable = new LongAdder();
+        timedOut = new LongAdder();
+        generated = new LongAdder();
+
+        executor = newExecutor(permits);
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/solve", ex -> handle(ex, "POST", this::solve));
+        server.createContext("/generate", ex -> handle(ex, "GET", this::generate));
+        server.createContext("/stats", ex -> handle(ex, "GET", this::stats));
+    }
+
+    // Runs the service from the command line
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int permits = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        SolverEngine engine = args.length > 2 ? SolverEngine.forName(args[2]) : SolverEngine.DLX;
+
+        SudokuService service = new SudokuService(port, permits, engine);
+        service.start();
+        System.out.println("Serving on port " + service.getPort() + " with " + permits + " permits");
+    }
+
+    // Accessor methods
+    public int getPort() { return server.getAddress().getPort(); }
+
+    // Starts answering requests
+    public void start() {
+        server.start();
+    }
+
+    // Stops answering requests and releases the threads
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        pool.shutdown();
+    }
+
+    // Returns a virtual thread per task executor if the JVM has one,
+    //   otherwise a fixed pool with a thread per permit
+    private static ExecutorService newExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    // Work done by an endpoint with the request's solver, returning the body of the response
+    private interface Endpoint {
+        String answer(HttpExchange ex, Solver solver) throws IOException;
+    }
+
+    // Checks the method, takes a permit and a solver and writes the
+    //   endpoint's answer, turning bad input into 400, a busy service
+    //   into 503 and any other failure into 500
+    private void handle(HttpExchange ex, String method, Endpoint endpoint) throws IOException {
+        try {
+            if (!ex.getRequestMethod().equals(method)) {
+                reply(ex, 405, "Use " + method + "\n");
+                return;
+            }
+            if (!permits.tryAcquire(WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                reply(ex, 503, "Busy\n");
+                return;
+            }
+            // there are as many solvers as permits, so one is always free here
+            Solver solver = solvers.poll();
+            try {
+                reply(ex, 200, endpoint.answer(ex, solver));
+                requests.increment();
+            } finally {
+                solvers.add(solver);
+                permits.release();
+            }
+        } catch (IllegalArgumentException e) {
+            reply(ex, 400, e.getMessage() + "\n");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reply(ex, 503, "Stopping\n");
+        } catch (RuntimeException e) {
+            reply(ex, 500, "Internal error: " + e.getClass().getSimpleName() + "\n");
+        } finally {
+            ex.close();
+        }
+    }
+
+    // Sends a plain text response
+    private static void reply(HttpExchange ex, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        ex.getResponseHeaders().set("Content-Type", "text/plain; charset=us-ascii");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    // Solves every puzzle line of the body, writing unsolvable ones back
+    //   unchanged; with a timeout the backtracking solver is used, since
+    //   it is the one that can stop at a deadline
+    private String solve(HttpExchange ex, Solver reusable) throws IOException {
+        int timeout = number(query(ex.getRequestURI()), "timeout", 0);
+        if (timeout < 0)
+            throw new IllegalArgumentException("Timeout must not be negative");
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        StringBuilder out = new StringBuilder();
+        BufferedReader in = new BufferedReader(new InputStreamReader(ex.getRequestBody(), StandardCharsets.US_ASCII));
+        int count = 0;
+        for (String line; (line = in.readLine()) != null; ) {
+            line = line.trim();
+            if (line.isEmpty())
+                continue;
+            if (++count > MAX_BATCH)
+                throw new IllegalArgumentException("At most " + MAX_BATCH + " puzzles per request");
+
+            int[][] board = parse(line);
+            SolveResult result;
+            if (timeout > 0)
+                result = reusable.reset(board).solve(deadline);
+            else {
+                SudokuSolver solver = engine.solverFor(board, reusable);
+                solver.solve();
+                result = solver.isSolved() ? SolveResult.SOLVED : SolveResult.UNSOLVABLE;
+            }
+            if (result.isFilled()) {
+                solved.increment();
+                out.append(format(board)).append('\n');
+            } else {
+                (result == SolveResult.TIMED_OUT ? timedOut : unsolvable).increment();
+                out.append(line).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    // Generates puzzles of the asked difficulty and size, taking
+    //   9x9 ones from the pool
+    private String generate(HttpExchange ex, Solver unused) {
+        Map<String, String> query = query(ex.getRequestURI());
+        String difficulty = query.getOrDefault("difficulty", "easy");
+        if (!difficulty.equals("easy") && !difficulty.equals("hard"))
+            throw new IllegalArgumentException("Difficulty must be easy or hard");
+        int box = boxOf(number(query, "size", 9));
+        int count = number(query, "count", 1);
+        if (count < 1 || count > MAX_COUNT)
+            throw new IllegalArgumentException("Count must be 1 to " + MAX_COUNT);
+
+        StringBuilder out = new StringBuilder();
+        for (int k = 0; k < count; k++) {
+            Puzzle p = box == 3 ? pool.take(difficulty) : SudokuGame.generate(difficulty, box);
+            out.append(format(p.getBoard())).append('\n');
+            out.append(format(p.getSolution())).append('\n');
+            generated.increment();
+        }
+        return out.toString();
+    }
+
+    // Reports the service counters and the solver totals
+    private String stats(HttpExchange ex, Solver unused) {
+        SolverStats totals = SolverStats.totals();
+        return "requests " + requests.sum() + "\n"
+                + "rejected " + rejected.sum() + "\n"
+                + "solved " + solved.sum() + "\n"
+                + "unsolvable " + unsolvable.sum() + "\n"
+                + "timedOut " + timedOut.sum() + "\n"
+                + "generated " + generated.sum() + "\n"
+                + "pool.easy " + pool.size("easy") + "\n"
+                + "pool.hard " + pool.size("hard") + "\n"
+                + "solves " + SolverStats.getSolves() + "\n"
+                + "cacheHits " + SolverStats.getCacheHits() + "\n"
+                + "nodes " + totals.getNodes() + "\n"
+                + "guesses " + totals.getGuesses() + "\n"
+                + "backtracks " + totals.getBacktracks() + "\n"
+                + "propagations " + totals.getPropagations() + "\n"
+                + "maxDepth " + totals.getMaxDepth() + "\n"
+                + "solveNanos " + totals.getNanos() + "\n";
+    }
+
+    // Reads a puzzle line of 81, 256 or 625 spots into a board
+    static int[][] parse(String line) {
+        int size = (int) Math.round(Math.sqrt(line.length()));
+        boxOf(size);
+        if (size * size != line.length())
+            throw new IllegalArgumentException("Puzzle lines must have 81, 256 or 625 spots");
+
+        int[][] board = new int[size][size];
+        for (int i = 0; i < line.length(); i++) {
+            char ch = Character.toUpperCase(line.charAt(i));
+            int num = ch == '.' || ch == '0' ? 0 : SYMBOLS.indexOf(ch) + 1;
+            if (num == 0 && ch != '.' && ch != '0' || num > size)
+                throw new IllegalArgumentException("Bad spot '" + line.charAt(i) + "' at " + i);
+            board[i / size][i % size] = num;
+        }
+        return board;
+    }
+
+    // Writes a board as a puzzle line
+    static String format(int[][] board) {
+        StringBuilder sb = new StringBuilder(board.length * board.length);
+        for (int[] row : board)
+            for (int num : row)
+                sb.append(num == 0 ? '.' : SYMBOLS.charAt(num - 1));
+        return sb.toString();
+    }
+
+    // Returns the block size of a supported board size
+    private static int boxOf(int size) {
+        switch (size) {
+            case 9:
+                return 3;
+            case 16:
+                return 4;
+            case 25:
+                return 5;
+            default:
+                throw new IllegalArgumentException("Size must be 9, 16 or 25");
+        }
+    }
+
+    // Splits the query string of a request into its parameters
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> map = new HashMap<>();
+        String q = uri.getQuery();
+        if (q != null)
+            for (String pair : q.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0)
+                    map.put(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        return map;
+    }
+
+    // Reads a whole number parameter, or the default if it is absent
+    private static int number(Map<String, String> query, String name, int otherwise) {
+        String value = query.get(name);
+        if (value == null)
+            return otherwise;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number");
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+/**
+ *  SudokuSolver is the common interface for the solving
+ *     engines so callers can pick one without caring how
+ *     it searches
+ */
+
+public interface SudokuSolver {
+
+    // Solves the board, filling it in place, and returns it
+    int[][] solve();
+
+    // Indicates whether or not the board is solved
+    boolean isSolved();
+
+    // Returns the board being solved
+    int[][] getBoard();
+
+    // Returns the work counted during the last solve
+    SolverStats getStats();
+
+}
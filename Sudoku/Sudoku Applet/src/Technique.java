@@ -0,0 +1,32 @@
+/**
+ *  Technique lists the human solving techniques from easiest
+ *     to hardest, used to grade how difficult a puzzle is
+ */
+
+public enum Technique {
+
+    NAKED_SINGLE("Naked single", "easy"),
+    HIDDEN_SINGLE("Hidden single", "easy"),
+    LOCKED_CANDIDATES("Locked candidates", "medium"),
+    NAKED_PAIR("Naked pair", "medium"),
+    HIDDEN_PAIR("Hidden pair", "medium"),
+    NAKED_TRIPLE("Naked triple", "hard"),
+    HIDDEN_TRIPLE("Hidden triple", "hard"),
+    X_WING("X-wing", "hard"),
+    GUESS("Guessing", "expert");
+
+    // Instance variables
+    private String label;         // Name shown to players
+    private String difficulty;    // Difficulty tier of puzzles needing this technique
+
+    // Technique constructor
+    Technique(String label, String difficulty) {
+        this.label = label;
+        this.difficulty = difficulty;
+    }
+
+    // Accessor methods
+    public String getLabel() { return label; }
+    public String getDifficulty() { return difficulty; }
+
+}
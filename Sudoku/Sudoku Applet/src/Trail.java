@@ -0,0 +1,47 @@
+/**
+ *  Trail records every change made to a candidate board during
+ *     a search so a guess can be taken back by restoring the old
+ *     masks, instead of copying the whole board for each guess
+ *
+ *  Options only ever shrink along one line of guesses, so a spot
+ *     changes at most size times before it is undone and the trail
+ *     never has to grow. Keep one per thread, as Geometry.trail()
+ *     does, or one per reused Solver.
+ */
+
+public class Trail {
+
+    // Instance variables
+    private int[] spots;          // Spot changed by each entry
+    private long[] masks;         // Mask the spot had before the change
+    private int top;              // Number of entries on the trail
+
+    // Trail constructor
+    public Trail(Geometry geo) {
+        spots = new int[geo.getCells() * geo.getSize()];
+        masks = new long[spots.length];
+        top = 0;
+    }
+
+    // Returns a mark to undo back to
+    public int mark() { return top; }
+
+    // Sets a spot of a candidate board, remembering its old mask
+    public void set(long[] opt, int i, long mask) {
+        spots[top] = i;
+        masks[top++] = opt[i];
+        opt[i] = mask;
+    }
+
+    // Restores every spot changed since the mark was taken
+    public void undo(long[] opt, int mark) {
+        while (top > mark) {
+            top--;
+            opt[spots[top]] = masks[top];
+        }
+    }
+
+    // Forgets every entry without restoring anything
+    public void clear() { top = 0; }
+
+}
@@ -0,0 +1,58 @@
+/**
+ *  Corpus loads one of the bundled puzzle sets from the
+ *     classpath, one 81 character puzzle per line
+ *
+ *  easy       generated puzzles solvable with singles alone
+ *  minimal17  puzzles with only 17 numbers given
+ *  hardest    well known puzzles that defeat simple techniques
+ */
+
+// Necessary imports
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class Corpus {
+
+    // Names of the bundled puzzle sets
+    public static final String[] NAMES = {"easy", "minimal17", "hardest"};
+
+    // Instance variables
+    private String name;          // Name of the puzzle set
+    private int[][][] puzzles;    // Boards of the puzzle set, never solved in place
+
+    // Corpus constructor, reading the set from the classpath
+    public Corpus(String name) throws IOException {
+        this.name = name;
+        InputStream in = Corpus.class.getResourceAsStream("/" + name + ".txt");
+        if (in == null)
+            throw new FileNotFoundException("No corpus " + name + ".txt on the classpath");
+
+        List<int[][]> list = new ArrayList<>();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.length() < 81) continue;
+                int[][] b = new int[9][9];
+                for (int i = 0; i < 81; i++) {
+                    char ch = line.charAt(i);
+                    b[i / 9][i % 9] = ch >= '1' && ch <= '9' ? ch - '0' : 0;
+                }
+                list.add(b);
+            }
+        }
+        puzzles = list.toArray(new int[0][][]);
+    }
+
+    // Accessor methods
+    public String getName() { return name; }
+    public int size() { return puzzles.length; }
+
+    // Copies puzzle i into the given board so it can be solved in place
+    public void copy(int i, int[][] board) {
+        for (int r = 0; r < 9; r++)
+            System.arraycopy(puzzles[i][r], 0, board[r], 0, 9);
+    }
+
+}
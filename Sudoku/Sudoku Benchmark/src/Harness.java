@@ -0,0 +1,99 @@
+/**
+ *  Harness times an operation the way JMH does: warmup
+ *     iterations to reach steady state, then timed measurement
+ *     iterations, reporting the mean and spread of the time per
+ *     operation and the bytes allocated per operation
+ */
+
+// Necessary imports
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+public class Harness {
+
+    // Operation being measured, returning how many operations it performed
+    public interface Op {
+        int run();
+    }
+
+    // Instance variables
+    private int warmups;          // Warmup iterations, not reported
+    private int iterations;       // Measurement iterations
+    private long iterationNanos;  // Length of each iteration
+
+    // Harness constructor
+    public Harness(int warmups, int iterations, long iterationMillis) {
+        this.warmups = warmups;
+        this.iterations = iterations;
+        this.iterationNanos = iterationMillis * 1000000L;
+    }
+
+    // Runs an operation repeatedly for every iteration and returns the results
+    public Result measure(Op op) {
+        for (int i = 0; i < warmups; i++)
+            iterate(op, new long[1]);
+
+        double[] perOp = new double[iterations];
+        long ops = 0, bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            long[] done = new long[1];
+            long before = allocated();
+            long nanos = iterate(op, done);
+            bytes += allocated() - before;
+            ops += done[0];
+            perOp[i] = (double) nanos / done[0];
+        }
+        return new Result(perOp, ops == 0 ? 0 : (double) bytes / ops);
+    }
+
+    // Runs the operation until an iteration's time is up, returning the time taken
+    private long iterate(Op op, long[] done) {
+        long start = System.nanoTime(), now;
+        do {
+            done[0] += op.run();
+            now = System.nanoTime();
+        } while (now - start < iterationNanos);
+        return now - start;
+    }
+
+    // Returns the bytes allocated so far by the current thread, or 0 if the JVM cannot tell
+    private static long allocated() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return 0;
+    }
+
+    // Times per operation of each iteration and the bytes allocated per operation
+    public static class Result {
+
+        private double[] nanosPerOp;  // Mean time per operation of each iteration, sorted
+        private double bytesPerOp;    // Bytes allocated per operation over all iterations
+
+        private Result(double[] nanosPerOp, double bytesPerOp) {
+            this.nanosPerOp = nanosPerOp;
+            Arrays.sort(this.nanosPerOp);
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        // Returns the mean time per operation in microseconds
+        public double getMicros() {
+            double sum = 0;
+            for (double n : nanosPerOp)
+                sum += n;
+            return sum / nanosPerOp.length / 1000;
+        }
+
+        // Returns the spread of the time per operation between iterations in microseconds
+        public double getErrorMicros() {
+            return (nanosPerOp[nanosPerOp.length - 1] - nanosPerOp[0]) / 2000;
+        }
+
+        // Returns the operations per second
+        public double getThroughput() { return 1e6 / getMicros(); }
+
+        // Returns the bytes allocated per operation
+        public double getBytesPerOp() { return bytesPerOp; }
+    }
+
+}
@@ -0,0 +1,60 @@
+/**
+ *  KernelBenchmark compares the propagation kernels on the
+ *     bundled corpora, timing one propagation of each puzzle's
+ *     givens to its fixpoint
+ *
+ *  Usage: java --add-modules jdk.incubator.vector
+ *            -cp <applet classes>:<vector classes>:<benchmark classes>:corpus
+ *            KernelBenchmark [iterations] [millis per iteration]
+ *
+ *  Without the vector module only the scalar Propagator is timed.
+ */
+
+// Necessary imports
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class KernelBenchmark {
+
+    // Runs the benchmark from the command line
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        Harness harness = new Harness(iterations, iterations, millis);
+        Geometry geo = Geometry.of(3);
+
+        Map<String, PropagationKernel> kernels = new LinkedHashMap<>();
+        kernels.put("scalar", new Propagator(geo));
+        PropagationKernel vector = PropagationKernel.vector(geo);
+        if (vector != null)
+            kernels.put("vector", vector);
+        else
+            System.out.println("Vector kernel not available, run with --add-modules jdk.incubator.vector");
+
+        System.out.printf("%-40s %12s %10s %12s %8s%n", "Benchmark", "Score", "Error", "Units", "B/op");
+        for (String name : Corpus.NAMES) {
+            Corpus corpus = new Corpus(name);
+            long[][] givens = new long[corpus.size()][];
+            int[][] board = new int[9][9];
+            for (int i = 0; i < corpus.size(); i++) {
+                corpus.copy(i, board);
+                givens[i] = Solver.toOptions(board);
+            }
+
+            for (Map.Entry<String, PropagationKernel> k : kernels.entrySet()) {
+                PropagationKernel kernel = k.getValue();
+                long[] opt = new long[geo.getCells()];
+                int[] next = {0};
+                Harness.Result res = harness.measure(() -> {
+                    System.arraycopy(givens[next[0]++ % givens.length], 0, opt, 0, opt.length);
+                    kernel.propagate(opt);
+                    return 1;
+                });
+                System.out.printf("%-40s %12.3f %10.3f %12s %8.0f%n", "propagate." + name + "." + k.getKey(),
+                        res.getMicros(), res.getErrorMicros(), "us/op", res.getBytesPerOp());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+/**
+ *  SizeBenchmark is a headless runner that reports how puzzle
+ *     generation and solving scale with the board size
+ *
+ *  Usage: java SizeBenchmark [puzzles per size] [largest block size]
+ */
+
+public class SizeBenchmark {
+
+    // Runs the benchmark from the command line
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int maxBox = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        System.out.printf("%-7s %-6s %14s %14s %14s%n", "board", "level", "generate ms", "backtrack ms", "dlx ms");
+        for (int box = 3; box <= maxBox; box++)
+            for (String difficulty : new String[] {"easy", "hard"}) {
+                Puzzle[] puzzles = new Puzzle[count];
+                long start = System.nanoTime();
+                for (int i = 0; i < count; i++)
+                    puzzles[i] = SudokuGame.generate(difficulty, box);
+                double generate = (System.nanoTime() - start) / 1e6 / count;
+
+                int size = box * box;
+                System.out.printf("%-7s %-6s %14.3f %14.3f %14.3f%n", size + "x" + size, difficulty, generate,
+                        timeSolve(puzzles, SolverEngine.BACKTRACK), timeSolve(puzzles, SolverEngine.DLX));
+            }
+    }
+
+    // Returns the mean time in milliseconds for an engine to solve each puzzle
+    private static double timeSolve(Puzzle[] puzzles, SolverEngine engine) {
+        long total = 0;
+        for (Puzzle p : puzzles) {
+            int[][] b = new int[p.getBoard().length][];
+            for (int r = 0; r < b.length; r++)
+                b[r] = p.getBoard()[r].clone();
+            long start = System.nanoTime();
+            SudokuSolver solver = engine.newSolver(b);
+            solver.solve();
+            total += System.nanoTime() - start;
+            if (!solver.isSolved())
+                throw new IllegalStateException(engine + " failed on a generated puzzle");
+        }
+        return total / 1e6 / puzzles.length;
+    }
+
+}
@@ -0,0 +1,154 @@
+/**
+ *  SolverBenchmark compares the solver engines and generator on
+ *     the bundled corpora, covering single solve latency, batch
+ *     throughput, generation rate and bytes allocated per operation,
+ *     and on nearly empty boards
+ *
+ *  Usage: java -cp <applet classes>:<benchmark classes>:corpus
+ *            SolverBenchmark [iterations] [millis per iteration] [threads]
+ */
+
+// Necessary imports
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+public class SolverBenchmark {
+
+    // Runs every benchmark from the command line
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Harness harness = new Harness(iterations, iterations, millis);
+
+        List<Corpus> corpora = new ArrayList<>();
+        for (String name : Corpus.NAMES)
+            corpora.add(new Corpus(name));
+
+        System.out.printf("%-40s %12s %10s %12s %8s%n", "Benchmark", "Score", "Error", "Units", "B/op");
+
+        // latency of one solve, cycling through the corpus
+        for (Corpus corpus : corpora)
+            for (SolverEngine engine : SolverEngine.values()) {
+                int[][] board = new int[9][9];
+                int[] next = {0};
+                Harness.Result res = harness.measure(() -> {
+                    corpus.copy(next[0]++ % corpus.size(), board);
+                    engine.newSolver(board).solve();
+                    return 1;
+                });
+                report("solve." + corpus.getName() + "." + engine, res.getMicros(), res.getErrorMicros(), "us/op", res);
+            }
+
+        // latency of one solve reusing the thread's solver, which should allocate nothing
+        for (Corpus corpus : corpora) {
+            int[][] board = new int[9][9];
+            int[] next = {0};
+            Harness.Result res = harness.measure(() -> {
+                corpus.copy(next[0]++ % corpus.size(), board);
+                Solver.local(board).solve();
+                return 1;
+            });
+            report("solve." + corpus.getName() + ".REUSED", res.getMicros(), res.getErrorMicros(), "us/op", res);
+        }
+
+        // slowest single puzzle of each corpus, the tail that adversarial input hits
+        for (Corpus corpus : corpora)
+            for (SolverEngine engine : SolverEngine.values()) {
+                int[][] board = new int[9][9];
+                double worst = 0;
+                for (int i = 0; i < corpus.size(); i++) {
+                    long best = Long.MAX_VALUE;
+                    for (int rep = 0; rep < iterations; rep++) {
+                        corpus.copy(i, board);
+                        long start = System.nanoTime();
+                        engine.newSolver(board).solve();
+                        best = Math.min(best, System.nanoTime() - start);
+                    }
+                    worst = Math.max(worst, best / 1000.0);
+                }
+                report("worst." + corpus.getName() + "." + engine, worst, 0, "us", null);
+            }
+
+        // boards with almost nothing given, which no engine should take long over
+        for (int clues = 0; clues <= 3; clues++)
+            for (SolverEngine engine : SolverEngine.values()) {
+                int[][] board = new int[9][9];
+                long best = Long.MAX_VALUE;
+                for (int rep = 0; rep < iterations; rep++) {
+                    sparse(board, clues);
+                    long start = System.nanoTime();
+                    engine.newSolver(board).solve();
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                report("sparse." + clues + "." + engine, best / 1000.0, 0, "us", null);
+            }
+
+        // throughput of a whole corpus solved across a worker pool
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (Corpus corpus : corpora)
+                for (SolverEngine engine : SolverEngine.values()) {
+                    Harness.Result res = harness.measure(() -> solveAll(pool, threads, corpus, engine));
+                    report("batch." + corpus.getName() + "." + engine, res.getThroughput(), 0, "puzzles/s", null);
+                }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // generation rate of full boards and of puzzles
+        int[][] full = new int[9][9];
+        Harness.Result fill = harness.measure(() -> {
+            GridShuffler.fill(full);
+            return 1;
+        });
+        report("generate.fullBoard", fill.getThroughput(), 0, "boards/s", fill);
+        for (String difficulty : new String[] {"easy", "hard"}) {
+            Harness.Result res = harness.measure(() -> {
+                SudokuGame.generate(difficulty);
+                return 1;
+            });
+            report("generate." + difficulty, res.getThroughput(), 0, "puzzles/s", res);
+        }
+    }
+
+    // Clears a board and gives one number in each of the first clues rows
+    private static void sparse(int[][] board, int clues) {
+        for (int[] row : board)
+            Arrays.fill(row, 0);
+        for (int k = 0; k < clues; k++)
+            board[k][k * 3 % 9] = k + 1;
+    }
+
+    // Solves every puzzle of a corpus split across the pool, returning how many were solved
+    private static int solveAll(ExecutorService pool, int threads, Corpus corpus, SolverEngine engine) {
+        List<Future<?>> parts = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            parts.add(pool.submit(() -> {
+                int[][] board = new int[9][9];
+                for (int i = first; i < corpus.size(); i += threads) {
+                    corpus.copy(i, board);
+                    engine.newSolver(board).solve();
+                }
+            }));
+        }
+        try {
+            for (Future<?> f : parts)
+                f.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Batch solve failed", e);
+        }
+        return corpus.size();
+    }
+
+    // Prints one result line, with the allocation rate when there is one
+    private static void report(String name, double score, double error, String units, Harness.Result res) {
+        System.out.printf("%-40s %12.3f %10.3f %12s %8s%n", name, score, error, units,
+                res == null ? "" : String.format("%.0f", res.getBytesPerOp()));
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+ *  VectorKernel propagates a candidate board with the incubating
+ *     Vector API, working on several units of one kind at once
+ *
+ *  Each lane holds one row, column or block, and a batch of lanes
+ *     reads the spots at the same position of every unit in it, so
+ *     a pass over the positions finds the decided numbers, the
+ *     numbers seen once and those seen twice in every unit of the
+ *     batch. A second pass removes the decided numbers from the
+ *     other spots and places the numbers seen only once. Units of
+ *     one kind never share a spot, so the lanes of a batch can be
+ *     written back together. Rounds over every batch repeat until
+ *     nothing changes, reaching the same fixpoint as Propagator.
+ *
+ *  Masks stay in long lanes, the width the rest of the solver
+ *     uses, so nothing is converted on the way in or out. Lanes
+ *     past the last unit read a spare spot holding every option,
+ *     which never changes, so no lane needs a mask. Each batch is
+ *     copied into a buffer laid out position by position, since
+ *     loads with an index map are not compiled to gathers on every
+ *     JVM and then allocate on each call.
+ *
+ *  Needs --add-modules jdk.incubator.vector at compile and run time;
+ *     Geometry loads it by name when -Dsudoku.kernel=vector is set.
+ */
+
+// Necessary imports
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorKernel implements PropagationKernel {
+
+    // Widest lanes of longs the machine runs well
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    // Instance variables
+    private Geometry geo;             // Shape of the boards propagated
+    private int size;                 // Spots in each unit
+    private int lanes;                // Units handled at once
+    private int batches;              // Batches of lanes covering every unit
+    private int[] index;              // Spot read by each lane, by batch then position
+    private long[] work;              // Board being propagated, then the spare spot
+    private long[] stage;             // Spots of the current batch, by position then lane
+    private long all;                 // Mask of every option
+
+    // VectorKernel constructor, laying the units of a shape out in batches
+    public VectorKernel(Geometry geo) {
+        this.geo = geo;
+        size = geo.getSize();
+        lanes = SPECIES.length();
+        int perKind = (size + lanes - 1) / lanes;
+        batches = 3 * perKind;
+        index = new int[batches * size * lanes];
+        work = new long[geo.getCells() + 1];
+        work[geo.getCells()] = geo.getAll();
+        stage = new long[size * lanes];
+
+        for (int kind = 0, b = 0; kind < 3; kind++)
+            for (int first = 0; first < size; first += lanes, b++)
+                for (int l = 0; l < lanes; l++)
+                    for (int p = 0; p < size; p++)
+                        index[(b * size + p) * lanes + l] = first + l < size
+                                ? geo.units[kind * size + first + l][p] : geo.getCells();
+        all = geo.getAll();
+    }
+
+    // Propagates every decided spot of a candidate board to a fixpoint,
+    //   returning false if some spot or number is left with no place
+    public boolean propagate(long[] opt) {
+        for (long o : opt)
+            if (o == 0)
+                return false;
+        System.arraycopy(opt, 0, work, 0, opt.length);
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b = 0; b < batches; b++) {
+                int state = batch(b);
+                if (state < 0)
+                    return false;
+                changed |= state > 0;
+            }
+        }
+        System.arraycopy(work, 0, opt, 0, opt.length);
+        return true;
+    }
+
+    // Runs both passes over one batch, returning -1 on a contradiction,
+    //   1 if some spot changed and 0 otherwise
+    private int batch(int b) {
+        int base = b * size * lanes;
+        for (int k = 0; k < stage.length; k++)
+            stage[k] = work[index[base + k]];
+
+        // first pass: decided numbers, two spots decided alike, and
+        //   numbers seen at least once and at least twice
+        // vectors are made here rather than kept in fields, which
+        //   would box them on every trip around the loops
+        LongVector zero = LongVector.zero(SPECIES);
+        LongVector decided = zero, clash = zero, once = zero, twice = zero;
+        for (int p = 0; p < size; p++) {
+            LongVector v = LongVector.fromArray(SPECIES, stage, p * lanes);
+            LongVector single = zero.blend(v, v.and(v.sub(1L)).eq(0L));
+            clash = clash.or(decided.and(single));
+            decided = decided.or(single);
+            twice = twice.or(once.and(v));
+            once = once.or(v);
+        }
+        if (clash.compare(VectorOperators.NE, 0L).anyTrue() || once.compare(VectorOperators.NE, all).anyTrue())
+            return -1;
+
+        // second pass: drop decided numbers from open spots and place
+        //   numbers with one spot left, emptying a spot that gets two
+        LongVector keep = decided.not();
+        LongVector only = once.and(twice.not()).and(keep);
+        int changed = 0;
+        for (int p = 0; p < size; p++) {
+            int at = p * lanes;
+            LongVector v = LongVector.fromArray(SPECIES, stage, at);
+            LongVector w = v.and(keep).blend(v, v.and(v.sub(1L)).eq(0L));
+            LongVector h = w.and(only);
+            h = h.blend(zero, h.and(h.sub(1L)).compare(VectorOperators.NE, 0L));
+            w = w.blend(h, w.and(only).compare(VectorOperators.NE, 0L));
+
+            VectorMask<Long> diff = w.compare(VectorOperators.NE, v);
+            if (diff.anyTrue()) {
+                if (w.compare(VectorOperators.EQ, 0L).anyTrue())
+                    return -1;
+                w.intoArray(stage, at);
+                for (int l = 0; l < lanes; l++)
+                    work[index[base + at + l]] = stage[at + l];
+                changed = 1;
+            }
+        }
+        return changed;
+    }
+
+}